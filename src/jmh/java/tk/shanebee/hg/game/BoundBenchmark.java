@@ -0,0 +1,104 @@
+package tk.shanebee.hg.game;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Containment checks of a {@link Bound} against the name comparing check it replaced
+ * <p>The world is mocked, so calls on it are kept out of every check. The old check is given the world's name
+ * as an equal but separate string, as CraftWorld#getName would return it.
+ * {@link Bound#contains(org.bukkit.block.Block)} is measured through {@link Bound#contains(World, int, int, int)},
+ * which it reads the block's world and coordinates into.</p>
+ * <p>Run with: mvn -P benchmark test-compile exec:exec</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundBenchmark {
+
+    private static final String WORLD = "arena_world";
+
+    // Block coordinates checked, half inside the bound
+    private final int[] xs = new int[1024];
+    private final int[] ys = new int[1024];
+    private final int[] zs = new int[1024];
+    private final Location[] locations = new Location[1024];
+    private int index;
+
+    private Bound bound;
+    private World world;
+    private UUID worldId;
+    private String worldName;
+
+    @Setup
+    public void setup() {
+        UUID uid = UUID.randomUUID();
+        world = mock(World.class);
+        when(world.getName()).thenReturn(WORLD);
+        when(world.getUID()).thenReturn(uid);
+        if (Bukkit.getServer() == null) {
+            Server server = mock(Server.class);
+            when(server.getLogger()).thenReturn(Logger.getLogger("BoundBenchmark"));
+            Bukkit.setServer(server);
+        }
+        when(Bukkit.getServer().getWorld(WORLD)).thenReturn(world);
+
+        bound = new Bound(WORLD, -100, 0, -100, 100, 128, 100);
+        worldId = new UUID(uid.getMostSignificantBits(), uid.getLeastSignificantBits());
+        worldName = new String(WORLD.toCharArray());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(-200, 200);
+            ys[i] = random.nextInt(-64, 320);
+            zs[i] = random.nextInt(-200, 200);
+            locations[i] = new Location(world, xs[i] + 0.5, ys[i], zs[i] + 0.5);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyIsInRegion() {
+        Location loc = locations[next()];
+        if (!worldName.equals(bound.getWorldName())) return false;
+        int cx = loc.getBlockX();
+        int cy = loc.getBlockY();
+        int cz = loc.getBlockZ();
+        return (cx >= bound.getMinX() && cx <= bound.getMaxX()) && (cy >= bound.getMinY() && cy <= bound.getMaxY()) &&
+                (cz >= bound.getMinZ() && cz <= bound.getMaxZ());
+    }
+
+    @Benchmark
+    public boolean isInRegion() {
+        return bound.isInRegion(locations[next()]);
+    }
+
+    @Benchmark
+    public boolean containsWorldId() {
+        int i = next();
+        return bound.contains(worldId, xs[i], ys[i], zs[i]);
+    }
+
+    @Benchmark
+    public boolean containsBlock() {
+        int i = next();
+        return bound.contains(world, xs[i], ys[i], zs[i]);
+    }
+
+    private int next() {
+        return index = (index + 1) & 1023;
+    }
+
+}
@@ -0,0 +1,92 @@
+package tk.shanebee.hg.game;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tk.shanebee.hg.data.ItemCatalog;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chest rolls of a {@link LootTable} against the list based fill it replaced
+ * <p>Only items are rolled, placing them needs a server. The old fill compared ItemStacks,
+ * which also needs a server, so it is run here on boxed ids and its numbers are a lower bound.</p>
+ * <p>Run with: mvn -P benchmark test-compile exec:exec</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LootTableBenchmark {
+
+    private static final int MIN_COST = 5;
+    private static final int MAX_COST = 15;
+
+    @Param({"50", "500"})
+    private int items;
+
+    private LootTable table;
+    private int[] out;
+    private SplittableRandom random;
+    private Map<Integer, Integer> rarityMap;
+    private Map<Integer, Integer> costMap;
+
+    @Setup
+    public void setup() {
+        ItemCatalog catalog = new ItemCatalog();
+        Random seed = new Random(42);
+        int[] ids = new int[items];
+        rarityMap = new HashMap<>();
+        costMap = new HashMap<>();
+        for (int i = 0; i < items; i++) {
+            int cost = 1 + seed.nextInt(5);
+            int rarity = 1 + seed.nextInt(10);
+            ids[i] = catalog.register(new ItemStack(Material.STONE), cost, rarity);
+            rarityMap.put(ids[i], rarity);
+            costMap.put(ids[i], cost);
+        }
+        table = LootTable.compile(catalog, ids);
+        out = new int[27];
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public void lootTable(Blackhole blackhole) {
+        blackhole.consume(table.roll(random, MIN_COST, MAX_COST, out));
+    }
+
+    @Benchmark
+    public List<Integer> legacy() {
+        ThreadLocalRandom rg = ThreadLocalRandom.current();
+        ArrayList<Integer> itemList = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : rarityMap.entrySet()) {
+            for (int i = 0; i < e.getValue(); i++) {
+                itemList.add(e.getKey());
+            }
+        }
+        Collections.shuffle(itemList);
+
+        int costGoal = rg.nextInt(MIN_COST, MAX_COST + 1);
+        int chestCost = 0;
+        ArrayList<Integer> chestContents = new ArrayList<>();
+        int numTries = 0;
+        while (chestCost < costGoal && numTries < 10) {
+            Integer nextItem = itemList.get(rg.nextInt(itemList.size()));
+            int nextItemCost = costMap.get(nextItem);
+            if (nextItemCost <= (costGoal - chestCost) && !chestContents.contains(nextItem)) {
+                chestCost += nextItemCost;
+                chestContents.add(nextItem);
+                numTries = 0;
+            } else {
+                numTries++;
+            }
+        }
+        return chestContents;
+    }
+
+}
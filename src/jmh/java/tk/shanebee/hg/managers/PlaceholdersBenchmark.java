@@ -0,0 +1,92 @@
+package tk.shanebee.hg.managers;
+
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.*;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Config;
+import tk.shanebee.hg.data.Language;
+import tk.shanebee.hg.data.Leaderboard;
+import tk.shanebee.hg.data.NameCache;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of {@link Placeholders#onRequest(OfflinePlayer, String)} against the parsing it replaced
+ * <p>The plugin and leaderboard are mocked, so this measures parsing and caching, not the leaderboard itself.</p>
+ * <p>Run with: mvn -P benchmark test-compile exec:exec</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholdersBenchmark {
+
+    @Param({"lb_wins_p_1", "lb_kills_weekly_s_3", "lb_player_2", "lb_deaths_player"})
+    private String identifier;
+
+    private Placeholders placeholders;
+    private Leaderboard leaderboard;
+    private Language lang;
+    private OfflinePlayer player;
+
+    @Setup
+    public void setup() {
+        Config.placeholderCacheTime = 1000;
+        leaderboard = mock(Leaderboard.class);
+        when(leaderboard.getPlayer(any(), anyInt())).thenReturn("Player");
+        when(leaderboard.getPlayer(any(), any(), anyInt())).thenReturn("Player");
+        when(leaderboard.getScore(any(), anyInt())).thenReturn(10);
+        when(leaderboard.getScore(any(), any(), anyInt())).thenReturn(10);
+        when(leaderboard.getStat(any(UUID.class), any())).thenReturn(5);
+        lang = mock(Language.class);
+        lang.lb_blank_space = "";
+        lang.lb_combined_separator = " : ";
+
+        HG plugin = mock(HG.class);
+        when(plugin.getLeaderboard()).thenReturn(leaderboard);
+        when(plugin.getLang()).thenReturn(lang);
+        when(plugin.getNameCache()).thenReturn(mock(NameCache.class));
+        placeholders = new Placeholders(plugin);
+
+        player = mock(OfflinePlayer.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public String onRequest() {
+        return placeholders.onRequest(player, identifier);
+    }
+
+    @Benchmark
+    public String legacy() {
+        if (identifier.startsWith("lb_player_")) {
+            int leader = Integer.parseInt(identifier.replace("lb_player_", ""));
+            String name = leaderboard.getPlayer(Leaderboard.Stats.WINS, leader);
+            return name != null ? name : lang.lb_blank_space;
+        }
+        String[] id = identifier.split("_");
+        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(id[1].toUpperCase());
+        Leaderboard.Window window = Leaderboard.Window.getByName(id[2]);
+        int type = window != null ? 3 : 2;
+        switch (id[type].toLowerCase()) {
+            case "p":
+                int position = Integer.parseInt(id[type + 1]);
+                return window != null ? leaderboard.getPlayer(stat, window, position) : leaderboard.getPlayer(stat, position);
+            case "s":
+                int score = Integer.parseInt(id[type + 1]);
+                return String.valueOf(window != null ? leaderboard.getScore(stat, window, score) : leaderboard.getScore(stat, score));
+            case "player":
+                return String.valueOf(leaderboard.getStat(player.getUniqueId(), stat));
+        }
+        return null;
+    }
+
+}
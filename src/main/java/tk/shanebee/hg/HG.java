@@ -30,17 +30,6 @@ public class HG extends JavaPlugin {
 	private Map<String, BaseCmd> cmds;
 	private Map<UUID, PlayerSession> playerSession;
 
-	private Map<ItemStack, Integer> itemRarityMap;
-
-	private Map<ItemStack, Integer> itemCostMap;
-
-	private Map<ItemStack, Integer> bonusRarityMap;
-
-	private Map<ItemStack, Integer> bonusCostMap;
-
-	//Lists
-	private List<Game> games;
-
 	//Instances
 	private static HG plugin;
 	private Config config;
@@ -49,10 +38,12 @@ public class HG extends JavaPlugin {
 	private ArenaConfig arenaconfig;
 	private KillManager killManager;
 	private RandomItems randomItems;
+	private ItemCatalog itemCatalog;
 	private Language lang;
 	private KitManager kitManager;
 	private ItemStackManager itemStackManager;
 	private Leaderboard leaderboard;
+	private NameCache nameCache;
 	private MobExecutor mmMobManager;
 
 	private static Party party = new NoParty();
@@ -82,12 +73,8 @@ public class HG extends JavaPlugin {
         if (load) {
             cmds = new HashMap<>();
         }
-	    games = new ArrayList<>();
         playerSession = new HashMap<>();
-        itemCostMap = new HashMap<>();
-		itemRarityMap = new HashMap<>();
-		bonusCostMap = new HashMap<>();
-		bonusRarityMap = new HashMap<>();
+		itemCatalog = new ItemCatalog();
 
 		config = new Config(this);
 		Bukkit.getLogger().info("Loading HungerGames by JT122406");
@@ -134,10 +121,12 @@ public class HG extends JavaPlugin {
 		mobConfig = new MobConfig(this);
 		randomItems = new RandomItems(this);
         playerManager = new PlayerManager();
+		manager = new Manager(this);
 		arenaconfig = new ArenaConfig(this);
 		killManager = new KillManager();
-		manager = new Manager(this);
+		nameCache = new NameCache(this);
 		leaderboard = new Leaderboard(this);
+		nameCache.load();
 
 		//PAPI check
 		if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
@@ -180,6 +169,7 @@ public class HG extends JavaPlugin {
 		getServer().getPluginManager().registerEvents(new CancelListener(this), this);
 		getServer().getPluginManager().registerEvents(new GameListener(this), this);
 		getServer().getPluginManager().registerEvents(new ChestDropListener(this), this);
+		getServer().getPluginManager().registerEvents(new WorldListener(this), this);
 
 		Util.log("HungerGames has been &aenabled&7 in &b%.2f seconds&7!", (float)(System.currentTimeMillis() - start) / 1000);
 	}
@@ -190,10 +180,11 @@ public class HG extends JavaPlugin {
 
     private void unloadPlugin(boolean reload) {
         stopAll();
-        games = null;
+        manager.shutdown();
+        leaderboard.shutdown();
+        nameCache.shutdown();
         playerSession = null;
-        itemRarityMap = null;
-		itemCostMap = null;
+		itemCatalog = null;
         plugin = null;
         config = null;
         nbtApi = null;
@@ -208,6 +199,7 @@ public class HG extends JavaPlugin {
         killManager = null;
         manager = null;
         leaderboard = null;
+        nameCache = null;
         HandlerList.unregisterAll(this);
         if (reload) {
             loadPlugin(false);
@@ -242,6 +234,7 @@ public class HG extends JavaPlugin {
 		cmds.put("toggle", new ToggleCmd());
 		cmds.put("setexit", new SetExitCmd());
 		cmds.put("delete", new DeleteCmd());
+		cmds.put("snapshot", new SnapshotCmd());
 		cmds.put("chestrefill", new ChestRefillCmd());
 		cmds.put("chestrefillnow", new ChestRefillNowCmd());
 		cmds.put("bordersize", new BorderSizeCmd());
@@ -275,7 +268,7 @@ public class HG extends JavaPlugin {
 	 */
 	public void stopAll() {
 		ArrayList<UUID> ps = new ArrayList<>();
-		for (Game g : games) {
+		for (Game g : getGames()) {
 			g.cancelTasks();
 			g.getGameBlockData().forceRollback();
 			ps.addAll(g.getGamePlayerData().getPlayers());
@@ -295,7 +288,7 @@ public class HG extends JavaPlugin {
                 }
 			}
 		}
-		games.clear();
+		manager.rebuildArenas(Collections.emptyList());
 	}
 
 	/** Get the instance of this plugin
@@ -361,11 +354,19 @@ public class HG extends JavaPlugin {
 		return this.leaderboard;
 	}
 
+	/** Get an instance of HG's player name cache
+	 * @return Name cache
+	 */
+	public NameCache getNameCache() {
+		return this.nameCache;
+	}
+
 	/** Get a list of all loaded games
+	 * <p>This list is immutable, use {@link Manager#addGame(Game)}/{@link Manager#removeGame(Game)} to add/remove games</p>
 	 * @return A list of games
 	 */
 	public List<Game> getGames() {
-		return this.games;
+		return manager.getGames();
 	}
 
 	/** Get player sessions map
@@ -423,19 +424,49 @@ public class HG extends JavaPlugin {
 	public MobExecutor getMmMobManager() {
 		return this.mmMobManager;
 	}
+	/**
+	 * Get the catalog of all random item definitions
+	 *
+	 * @return Item catalog
+	 */
+	public ItemCatalog getItemCatalog() {
+		return itemCatalog;
+	}
+
+	/**
+	 * Get the default random items and their rarity
+	 *
+	 * @return Read only map of items to rarity
+	 */
 	public Map<ItemStack, Integer> getItemRarityMap() {
-		return itemRarityMap;
+		return itemCatalog.getRarityMap(randomItems.getItems());
 	}
 
+	/**
+	 * Get the default random items and their cost
+	 *
+	 * @return Read only map of items to cost
+	 */
 	public Map<ItemStack, Integer> getItemCostMap() {
-		return itemCostMap;
+		return itemCatalog.getCostMap(randomItems.getItems());
 	}
+
+	/**
+	 * Get the default random bonus items and their rarity
+	 *
+	 * @return Read only map of items to rarity
+	 */
 	public Map<ItemStack, Integer> getBonusRarityMap() {
-		return bonusRarityMap;
+		return itemCatalog.getRarityMap(randomItems.getBonusItems());
 	}
 
+	/**
+	 * Get the default random bonus items and their cost
+	 *
+	 * @return Read only map of items to cost
+	 */
 	public Map<ItemStack, Integer> getBonusCostMap() {
-		return bonusCostMap;
+		return itemCatalog.getCostMap(randomItems.getBonusItems());
 	}
 
 }
@@ -22,8 +22,8 @@ public class ChestRefillNowCmd extends BaseCmd {
                 Util.scm(sender, lang.listener_not_running);
                 return true;
             }
-            game.getGameBlockData().refillChests();
-            Util.scm(sender, lang.cmd_chest_refill_now.replace("<arena>", game.getGameArenaData().getName()));
+            String name = game.getGameArenaData().getName();
+            game.getGameBlockData().refillChests(() -> Util.scm(sender, lang.cmd_chest_refill_now.replace("<arena>", name)));
         } else {
             Util.scm(sender, lang.cmd_delete_noexist);
         }
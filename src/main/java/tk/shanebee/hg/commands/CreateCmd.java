@@ -8,6 +8,7 @@ import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.util.Util;
 
 import java.util.Collections;
+import java.util.List;
 
 
 public class CreateCmd extends BaseCmd {
@@ -45,6 +46,12 @@ public class CreateCmd extends BaseCmd {
 					boolean less = session.getLoc1().getBlockY() < session.getLoc2().getBlockY();
 					Location lesser = less ? session.getLoc1() : session.getLoc2();
 					Location greater = less ? session.getLoc2() : session.getLoc1();
+					Bound b = new Bound(player.getWorld().getName(), lesser.getBlockX(), lesser.getBlockY(), lesser.getBlockZ(), greater.getBlockX(), greater.getBlockY(), greater.getBlockZ());
+					List<Game> overlapping = gameManager.getOverlappingGames(b);
+					if (!overlapping.isEmpty()) {
+						Util.scm(player, "&cThis selection overlaps arena '&b" + overlapping.get(0).getGameArenaData().getName() + "&c'");
+						return true;
+					}
 					int freeroam = plugin.getConfig().getInt("settings.free-roam");
 					int cost = Integer.parseInt(args[5]);
 					Configuration config = arenaConfig.getCustomConfig();
@@ -63,8 +70,7 @@ public class CreateCmd extends BaseCmd {
 					arenaConfig.saveCustomConfig();
 					arenaConfig.reloadCustomConfig();
 
-					Bound b = new Bound(player.getWorld().getName(), lesser.getBlockX(), lesser.getBlockY(), lesser.getBlockZ(), greater.getBlockX(), greater.getBlockY(), greater.getBlockZ());
-					plugin.getGames().add(new Game(args[1], b, Integer.parseInt(args[4]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), freeroam, cost));
+					gameManager.addGame(new Game(args[1], b, Integer.parseInt(args[4]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), freeroam, cost));
 					Util.sendPrefixedMessage(player, lang.cmd_create_created.replace("<arena>", args[1]));
 					Util.sendPrefixedMessage(player, lang.cmd_create_add_spawn);
 					return true;
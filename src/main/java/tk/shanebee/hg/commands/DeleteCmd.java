@@ -46,7 +46,7 @@ public class DeleteCmd extends BaseCmd {
 				arenaConfig.getCustomConfig().set("arenas." + args[1], null);
 				arenaConfig.saveCustomConfig();
 				Util.scm(sender, lang.cmd_delete_deleted.replace("<arena>", gameArenaData.getName()));
-				plugin.getGames().remove(g);
+				gameManager.removeGame(g);
 			} catch (Exception e) {
 				Util.scm(sender, lang.cmd_delete_failed);
 			}
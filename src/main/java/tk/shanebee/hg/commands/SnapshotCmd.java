@@ -0,0 +1,66 @@
+package tk.shanebee.hg.commands;
+
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.data.ArenaSnapshot;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.Util;
+
+public class SnapshotCmd extends BaseCmd {
+
+	public SnapshotCmd() {
+		forcePlayer = false;
+		cmdName = "snapshot";
+		forceInGame = false;
+		argLength = 2;
+		usage = "<game> [restore]";
+	}
+
+	@Override
+	public boolean run() {
+		Game game = gameManager.getGame(args[1]);
+		if (game == null) {
+			Util.scm(sender, lang.cmd_delete_noexist);
+			return true;
+		}
+		String name = game.getGameArenaData().getName();
+		Status status = game.getGameArenaData().getStatus();
+		if (status != Status.READY && status != Status.NOTREADY && status != Status.BROKEN) {
+			Util.scm(sender, lang.cmd_snapshot_in_use.replace("<arena>", name));
+			return true;
+		}
+
+		if (args.length >= 3 && args[2].equalsIgnoreCase("restore")) {
+			if (status != Status.READY) {
+				Util.scm(sender, lang.cmd_snapshot_not_ready.replace("<arena>", name));
+				return true;
+			}
+			if (!ArenaSnapshot.exists(game)) {
+				Util.scm(sender, lang.cmd_snapshot_none.replace("<arena>", name).replace("<usage>", sendHelpLine()));
+				return true;
+			}
+			Util.scm(sender, lang.cmd_snapshot_comparing.replace("<arena>", name));
+			ArenaSnapshot.restore(game).whenComplete((changed, ex) -> {
+				if (ex != null) {
+					ArenaSnapshot.logError(game, ex);
+					Util.scm(sender, lang.cmd_snapshot_restore_failed.replace("<arena>", name)
+							.replace("<error>", ArenaSnapshot.getErrorMessage(ex)));
+				} else {
+					Util.scm(sender, lang.cmd_snapshot_restoring.replace("<arena>", name).replace("<amount>", String.valueOf(changed)));
+				}
+			});
+		} else {
+			Util.scm(sender, lang.cmd_snapshot_creating.replace("<arena>", name));
+			ArenaSnapshot.save(game).whenComplete((blocks, ex) -> {
+				if (ex != null) {
+					ArenaSnapshot.logError(game, ex);
+					Util.scm(sender, lang.cmd_snapshot_create_failed.replace("<arena>", name)
+							.replace("<error>", ArenaSnapshot.getErrorMessage(ex)));
+				} else {
+					Util.scm(sender, lang.cmd_snapshot_created.replace("<arena>", name).replace("<amount>", String.valueOf(blocks)));
+				}
+			});
+		}
+		return true;
+	}
+
+}
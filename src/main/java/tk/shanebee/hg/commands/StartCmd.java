@@ -11,7 +11,7 @@ public class StartCmd extends BaseCmd {
 		cmdName = "forcestart";
 		forceInGame = false;
 		argLength = 2;
-		usage = "<game>";
+		usage = "<game> [seed]";
 	}
 
 	@Override
@@ -20,7 +20,18 @@ public class StartCmd extends BaseCmd {
 		if (g != null) {
 			Status status = g.getGameArenaData().getStatus();
 			if ((status == Status.WAITING || status == Status.READY )&& (g.getStartingTask() == null)) {
-				g.startPreGame();
+				if (args.length > 2) {
+					long seed;
+					try {
+						seed = Long.parseLong(args[2]);
+					} catch (NumberFormatException e) {
+						Util.scm(sender, "&cInvalid seed: &7" + args[2]);
+						return true;
+					}
+					g.startPreGame(seed);
+				} else {
+					g.startPreGame();
+				}
 				Util.scm(sender, lang.cmd_start_starting.replace("<arena>", args[1]));
 			} else if (status == Status.COUNTDOWN) {
 				g.getStartingTask().stop();
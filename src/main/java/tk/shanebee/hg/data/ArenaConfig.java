@@ -9,7 +9,6 @@ import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.inventory.ItemStack;
 import tk.shanebee.hg.*;
 import tk.shanebee.hg.game.Bound;
 import tk.shanebee.hg.game.Game;
@@ -103,6 +102,7 @@ public class ArenaConfig {
 			new CompassTask(plugin);
 
 			ConfigurationSection section = arenadat.getConfigurationSection("arenas");
+			List<Game> games = new ArrayList<>();
 			
 			if (section != null) {
 				for (String arenaName : section.getKeys(false)) {
@@ -155,7 +155,7 @@ public class ArenaConfig {
 					}
 
 					Game game = new Game(arenaName, bound, spawns, lobbysign, timer, minplayers, maxplayers, freeroam, isReady, cost);
-					plugin.getGames().add(game);
+					games.add(game);
 
 					World world = bound.getWorld();
 					if (world == null) {
@@ -173,22 +173,14 @@ public class ArenaConfig {
 						game.setKitManager(kit);
 
 					if (!arenadat.getStringList(path + ".items").isEmpty()) {
-						List<String> itemList = arenadat.getStringList(path + ".items");
-						Map<ItemStack, Integer> itemCostMap = HG.getPlugin().getItemCostMap();
-						Map<ItemStack, Integer> itemRarityMap = HG.getPlugin().getItemRarityMap();
-						plugin.getRandomItems().loadItems(itemList, itemCostMap, itemRarityMap);
-						game.getGameItemData().setItemCostMap(itemCostMap);
-						game.getGameItemData().setItemRarityMap(itemRarityMap);
-						Util.log(itemCostMap.keySet().size() + " Random items have been loaded for arena: &b" + arenaName);
+						int[] items = plugin.getRandomItems().loadItems(arenadat.getStringList(path + ".items"));
+						game.getGameItemData().setItems(items);
+						Util.log(items.length + " Random items have been loaded for arena: &b" + arenaName);
 					}
 					if (!arenadat.getStringList(path + ".bonus").isEmpty()) {
-						List<String> itemList = arenadat.getStringList(path + ".bonus");
-						Map<ItemStack, Integer> itemCostMap = HG.getPlugin().getBonusCostMap();
-						Map<ItemStack, Integer> itemRarityMap = HG.getPlugin().getBonusRarityMap();
-						plugin.getRandomItems().loadItems(itemList, itemCostMap, itemRarityMap);
-						game.getGameItemData().setBonusCostMap(itemCostMap);
-						game.getGameItemData().setBonusRarityMap(itemRarityMap);
-						Util.log(itemCostMap.keySet().size() + " Random items have been loaded for arena: &b" + arenaName);
+						int[] bonusItems = plugin.getRandomItems().loadItems(arenadat.getStringList(path + ".bonus"));
+						game.getGameItemData().setBonusItems(bonusItems);
+						Util.log(bonusItems.length + " Random items have been loaded for arena: &b" + arenaName);
 					}
 
 					if (arenadat.isSet(path + ".border.center")) {
@@ -244,6 +236,13 @@ public class ArenaConfig {
 			} else {
 				Util.log("&cNo Arenas to load.");
 			}
+			plugin.getManager().rebuildArenas(games);
+			// Restore arenas which were not rolled back before the server stopped
+			for (Game game : plugin.getGames()) {
+				RollbackLog.recover(game);
+				game.getGameBlockData().indexChests();
+				game.getGameItemData().recompileLootTables();
+			}
 		}
 	}
 	
@@ -0,0 +1,380 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.game.BlockJournal;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.BlockUtils;
+import tk.shanebee.hg.util.RegionScanner;
+import tk.shanebee.hg.util.Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pristine snapshot of an arena's blocks
+ * <p>Stored GZIP compressed in the 'snapshots' folder. The region of the {@link Bound} is split
+ * into chunk sections (16x16x16), each stored as its own palette of block data strings
+ * plus the palette index of every block, bit-packed into longs.</p>
+ * <p>Chunks are snapshot on the main thread by the {@link RegionScanner}, encoding and comparing is done async.
+ * Restoring only rewrites blocks which differ from the snapshot, through the arena's rollback.</p>
+ */
+public class ArenaSnapshot {
+
+    private static final int MAGIC = 0x48475353;
+    private static final byte VERSION = 1;
+
+    private static final Executor ASYNC = r -> Bukkit.getScheduler().runTaskAsynchronously(HG.getPlugin(), r);
+    private static final Executor MAIN = r -> {
+        if (Bukkit.isPrimaryThread()) r.run();
+        else Bukkit.getScheduler().runTask(HG.getPlugin(), r);
+    };
+
+    /**
+     * Check if an arena has a snapshot
+     *
+     * @param game Game to check
+     * @return True if a snapshot exists
+     */
+    public static boolean exists(Game game) {
+        return getFile(game).exists();
+    }
+
+    /**
+     * Create a snapshot of an arena
+     * <p>Replaces the existing snapshot once complete</p>
+     *
+     * @param game Game to snapshot
+     * @return Future completed on the main thread with the amount of blocks saved
+     */
+    public static CompletableFuture<Integer> save(Game game) {
+        Bound bound = game.getGameArenaData().getBound();
+        World world = bound.getWorld();
+        if (world == null) {
+            return failed(new IllegalStateException("World '" + bound.getWorldName() + "' is not loaded"));
+        }
+        File file = getFile(game);
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp.toPath()))));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeBound(out, bound);
+        } catch (IOException e) {
+            return failed(e);
+        }
+
+        int[] count = new int[1];
+        return RegionScanner.forEachBatch(bound, snapshots -> {
+            try {
+                for (ChunkSnapshot snapshot : snapshots) {
+                    count[0] += writeChunk(out, bound, snapshot);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenApplyAsync(v -> {
+            try {
+                out.writeBoolean(false);
+                out.close();
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return count[0];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ASYNC).handleAsync((c, ex) -> {
+            if (ex != null) {
+                try {
+                    out.close();
+                    Files.deleteIfExists(temp.toPath());
+                } catch (IOException ignore) {
+                }
+                throw new CompletionException(ex);
+            }
+            return c;
+        }, MAIN);
+    }
+
+    /**
+     * Restore an arena from its snapshot
+     * <p>Compares the live world with the snapshot and rolls back every block which differs,
+     * along with the blocks already recorded in the arena's journal.
+     * The game is marked as {@link Status#ROLLBACK} while comparing.</p>
+     *
+     * @param game Game to restore
+     * @return Future completed on the main thread with the amount of blocks which differed
+     */
+    public static CompletableFuture<Integer> restore(Game game) {
+        Bound bound = game.getGameArenaData().getBound();
+        World world = bound.getWorld();
+        if (world == null) {
+            return failedRestore(game, new IllegalStateException("World '" + bound.getWorldName() + "' is not loaded"));
+        }
+        File file = getFile(game);
+        DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file.toPath()))));
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                in.close();
+                return failedRestore(game, new IOException("Unknown snapshot format"));
+            }
+            if (!readBound(in, bound)) {
+                in.close();
+                return failedRestore(game, new IllegalStateException("Arena bounds changed since the snapshot was made, please create a new one"));
+            }
+        } catch (IOException e) {
+            return failedRestore(game, e);
+        }
+        game.getGameArenaData().setStatus(Status.ROLLBACK);
+
+        List<Long> keys = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        Map<BlockData, String> names = new HashMap<>();
+        boolean[] more = {readMore(in)};
+        return RegionScanner.forEachBatch(bound, snapshots -> {
+            try {
+                for (ChunkSnapshot snapshot : snapshots) {
+                    if (!more[0]) return;
+                    more[0] = diffChunk(in, bound, snapshot, names, keys, changed);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).handleAsync((v, ex) -> {
+            try {
+                in.close();
+            } catch (IOException ignore) {
+            }
+            if (ex == null) {
+                // Block data is only created on the main thread
+                BlockJournal journal = game.getGameBlockData().getJournal();
+                Map<String, BlockData> parsed = new HashMap<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    BlockData data = parsed.computeIfAbsent(changed.get(i), ArenaSnapshot::parse);
+                    if (data != null) {
+                        journal.recover(keys.get(i), world, data);
+                    }
+                }
+            }
+            // Always roll back, so the journal is restored even if comparing failed
+            HG.getPlugin().getManager().getRollbackCoordinator().rollback(game);
+            if (ex != null) throw new CompletionException(ex);
+            return keys.size();
+        }, MAIN);
+    }
+
+    private static BlockData parse(String data) {
+        try {
+            return Bukkit.createBlockData(data);
+        } catch (IllegalArgumentException e) {
+            Util.warning("Skipping invalid block data '%s' in snapshot", data);
+            return null;
+        }
+    }
+
+    private static boolean readMore(DataInputStream in) {
+        try {
+            return in.readBoolean();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Write all sections of a chunk, returns the amount of blocks written
+    private static int writeChunk(DataOutputStream out, Bound bound, ChunkSnapshot snapshot) throws IOException {
+        int count = 0;
+        int cx = snapshot.getX();
+        int cz = snapshot.getZ();
+        int minX = Math.max(bound.getMinX(), cx << 4) & 15;
+        int maxX = Math.min(bound.getMaxX(), (cx << 4) + 15) & 15;
+        int minZ = Math.max(bound.getMinZ(), cz << 4) & 15;
+        int maxZ = Math.min(bound.getMaxZ(), (cz << 4) + 15) & 15;
+        for (int sy = bound.getMinY() >> 4; sy <= bound.getMaxY() >> 4; sy++) {
+            int minY = Math.max(bound.getMinY(), sy << 4);
+            int maxY = Math.min(bound.getMaxY(), (sy << 4) + 15);
+            int size = (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+
+            Map<BlockData, Integer> palette = new LinkedHashMap<>();
+            int[] ids = new int[size];
+            int i = 0;
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        BlockData data = snapshot.getBlockData(x, y, z);
+                        Integer id = palette.get(data);
+                        if (id == null) {
+                            id = palette.size();
+                            palette.put(data, id);
+                        }
+                        ids[i++] = id;
+                    }
+                }
+            }
+
+            out.writeBoolean(true);
+            out.writeInt(cx);
+            out.writeInt(cz);
+            out.writeInt(sy);
+            out.writeInt(palette.size());
+            for (BlockData data : palette.keySet()) {
+                out.writeUTF(data.getAsString());
+            }
+            int bits = getBits(palette.size());
+            for (long value : pack(ids, bits)) {
+                out.writeLong(value);
+            }
+            count += size;
+        }
+        return count;
+    }
+
+    // Compare all sections of a chunk with the live snapshot, returns whether more sections follow
+    // Block data is compared as strings, as it can only be created on the main thread
+    private static boolean diffChunk(DataInputStream in, Bound bound, ChunkSnapshot snapshot, Map<BlockData, String> names,
+                                     List<Long> keys, List<String> changed) throws IOException {
+        int cx = snapshot.getX();
+        int cz = snapshot.getZ();
+        int minX = Math.max(bound.getMinX(), cx << 4) & 15;
+        int maxX = Math.min(bound.getMaxX(), (cx << 4) + 15) & 15;
+        int minZ = Math.max(bound.getMinZ(), cz << 4) & 15;
+        int maxZ = Math.min(bound.getMaxZ(), (cz << 4) + 15) & 15;
+        for (int sy = bound.getMinY() >> 4; sy <= bound.getMaxY() >> 4; sy++) {
+            if (in.readInt() != cx || in.readInt() != cz || in.readInt() != sy) {
+                throw new IOException("Snapshot is out of order");
+            }
+            int minY = Math.max(bound.getMinY(), sy << 4);
+            int maxY = Math.min(bound.getMaxY(), (sy << 4) + 15);
+            int size = (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+
+            String[] palette = new String[in.readInt()];
+            for (int p = 0; p < palette.length; p++) {
+                palette[p] = in.readUTF();
+            }
+            int bits = getBits(palette.length);
+            long[] packed = new long[getPackedLength(size, bits)];
+            for (int p = 0; p < packed.length; p++) {
+                packed[p] = in.readLong();
+            }
+
+            int perLong = bits == 0 ? 0 : 64 / bits;
+            long mask = (1L << bits) - 1;
+            int i = 0;
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        int id = bits == 0 ? 0 : (int) (packed[i / perLong] >>> ((i % perLong) * bits) & mask);
+                        i++;
+                        String original = palette[id];
+                        if (!original.equals(names.computeIfAbsent(snapshot.getBlockData(x, y, z), BlockData::getAsString))) {
+                            keys.add(BlockUtils.getBlockKey((cx << 4) + x, y, (cz << 4) + z));
+                            changed.add(original);
+                        }
+                    }
+                }
+            }
+            if (!in.readBoolean()) return false;
+        }
+        return true;
+    }
+
+    private static int getBits(int paletteSize) {
+        return paletteSize <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    private static int getPackedLength(int size, int bits) {
+        if (bits == 0) return 0;
+        int perLong = 64 / bits;
+        return (size + perLong - 1) / perLong;
+    }
+
+    private static long[] pack(int[] ids, int bits) {
+        long[] packed = new long[getPackedLength(ids.length, bits)];
+        if (bits == 0) return packed;
+        int perLong = 64 / bits;
+        for (int i = 0; i < ids.length; i++) {
+            packed[i / perLong] |= (long) ids[i] << ((i % perLong) * bits);
+        }
+        return packed;
+    }
+
+    private static void writeBound(DataOutputStream out, Bound bound) throws IOException {
+        out.writeUTF(bound.getWorldName());
+        out.writeInt(bound.getMinX());
+        out.writeInt(bound.getMinY());
+        out.writeInt(bound.getMinZ());
+        out.writeInt(bound.getMaxX());
+        out.writeInt(bound.getMaxY());
+        out.writeInt(bound.getMaxZ());
+    }
+
+    private static boolean readBound(DataInputStream in, Bound bound) throws IOException {
+        return in.readUTF().equals(bound.getWorldName())
+                && in.readInt() == bound.getMinX() && in.readInt() == bound.getMinY() && in.readInt() == bound.getMinZ()
+                && in.readInt() == bound.getMaxX() && in.readInt() == bound.getMaxY() && in.readInt() == bound.getMaxZ();
+    }
+
+    // Still roll back the journal, so a failed restore doesn't leave the arena broken
+    private static <T> CompletableFuture<T> failedRestore(Game game, Throwable throwable) {
+        HG.getPlugin().getManager().getRollbackCoordinator().rollback(game);
+        return failed(throwable);
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    private static File getFile(Game game) {
+        return new File(HG.getPlugin().getDataFolder(), "snapshots" + File.separator + game.getGameArenaData().getName() + ".hgs");
+    }
+
+    /**
+     * Get why creating or restoring a snapshot failed
+     *
+     * @param throwable Cause of the failure
+     * @return Message of the failure
+     */
+    public static String getErrorMessage(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && (cause instanceof CompletionException || cause instanceof UncheckedIOException)) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Log why creating or restoring a snapshot failed
+     *
+     * @param game      Game of the snapshot
+     * @param throwable Cause of the failure
+     */
+    public static void logError(Game game, Throwable throwable) {
+        Util.warning("Snapshot of arena '%s' failed: %s", game.getGameArenaData().getName(), getErrorMessage(throwable));
+    }
+
+}
@@ -33,7 +33,7 @@ public class ChestDrop {
 
     private void findLocation() {
         Bound bound = game.getGameArenaData().getBound();
-        Integer[] i = bound.getRandomLocs();
+        Integer[] i = bound.getRandomLocs(game.getMatchRandom().getChestDrops());
 
         int x = i[0];
         int y = i[1];
@@ -44,7 +44,7 @@ public class ChestDrop {
             y--;
 
             if (y <= 0) {
-                i = bound.getRandomLocs();
+                i = bound.getRandomLocs(game.getMatchRandom().getChestDrops());
 
                 x = i[0];
                 y = i[1];
@@ -33,6 +33,10 @@ public class Config {
     public static int minchestcontent;
     public static int maxbonuscontent;
     public static int minbonuscontent;
+    public static int lootBufferSize;
+    public static int lootBufferWatermark;
+    public static boolean chestRefillWave;
+    public static double chestRefillTickBudget;
     public static boolean teleportEnd;
     public static int teleportEndTime;
     public static List<String> bonusBlockTypes;
@@ -57,7 +61,13 @@ public class Config {
 
     //Rollback config info
     public static boolean breakblocks;
-    public static int blocks_per_second;
+    public static double rollbackTickBudget;
+    public static int leaderboardSaveInterval;
+    public static String leaderboardStorage;
+    public static int placeholderCacheTime;
+    public static int nameCacheSize;
+    public static int nameCacheTtl;
+    public static boolean rollbackFromSnapshot;
     public static boolean protectCooldown;
     public static boolean fixleaves;
     public static boolean preventtrample;
@@ -128,6 +138,10 @@ public class Config {
         minchestcontent = config.getInt("settings.min-chestcontent");
         maxbonuscontent = config.getInt("settings.max-bonus-chestcontent");
         minbonuscontent = config.getInt("settings.min-bonus-chestcontent");
+        lootBufferSize = config.getInt("settings.loot-buffer.size");
+        lootBufferWatermark = config.getInt("settings.loot-buffer.watermark");
+        chestRefillWave = config.getString("settings.chest-refill.mode", "lazy").equalsIgnoreCase("wave");
+        chestRefillTickBudget = config.getDouble("settings.chest-refill.tick-budget-ms");
         hideNametags = config.getBoolean("settings.hide-nametags");
         savePreviousLocation = config.getBoolean("settings.save-previous-location");
         bonusBlockTypes = config.getStringList("settings.bonus-block-types");
@@ -149,13 +163,20 @@ public class Config {
         giveReward = config.getBoolean("reward.enabled");
         cash = config.getInt("reward.cash");
         breakblocks = config.getBoolean("rollback.allow-block-break");
-        blocks_per_second = config.getInt("rollback.blocks-per-second");
+        rollbackTickBudget = config.getDouble("rollback.tick-budget-ms");
+        rollbackFromSnapshot = config.getBoolean("rollback.restore-from-snapshot");
         protectCooldown = config.getBoolean("rollback.protect-during-cooldown");
         fixleaves = config.getBoolean("rollback.fix-leaves");
         preventtrample = config.getBoolean("rollback.prevent-trampling");
         blocks = config.getStringList("rollback.editable-blocks");
         itemframe_take = config.getBoolean("rollback.allow-itemframe-take");
 
+        leaderboardSaveInterval = config.getInt("leaderboard.save-interval");
+        leaderboardStorage = config.getString("leaderboard.storage", "yaml");
+        placeholderCacheTime = config.getInt("leaderboard.placeholder-cache-ms");
+        nameCacheSize = config.getInt("leaderboard.name-cache.size");
+        nameCacheTtl = config.getInt("leaderboard.name-cache.ttl-hours");
+
         randomChest = config.getBoolean("random-chest.enabled");
         randomChestInterval = config.getInt("random-chest.interval") * 20;
         randomChestMaxContent = config.getInt("random-chest.max-chestcontent");
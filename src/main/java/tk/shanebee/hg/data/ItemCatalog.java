@@ -0,0 +1,168 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Catalog of all random item definitions
+ * <p>Each item definition gets a dense int id, with its cost and rarity in primitive arrays.
+ * Item lists of games are arrays of these ids, and chests are filled with copies of the prototype items,
+ * so filling never hashes or compares item meta.</p>
+ * <p>Ids are only ever added, so ids handed out stay valid and can be read from any thread.
+ * Registering an item equal to one already registered, with the same cost and rarity, returns the existing id,
+ * so reloads and repeated registrations don't grow the catalog.</p>
+ */
+public class ItemCatalog {
+
+    private volatile ItemStack[] prototypes = new ItemStack[64];
+    private volatile int[] costs = new int[64];
+    private volatile int[] rarities = new int[64];
+    private volatile int size;
+    // Ids of registered definitions, only used while registering
+    private final Map<Definition, Integer> ids = new HashMap<>();
+
+    /**
+     * Add an item definition to this catalog
+     * <p>If an equal definition is registered already, its id is returned instead</p>
+     *
+     * @param item   Prototype of the item
+     * @param cost   Cost of the item
+     * @param rarity Rarity of the item
+     * @return Id of the item
+     */
+    public synchronized int register(ItemStack item, int cost, int rarity) {
+        Definition definition = new Definition(item.clone(), cost, rarity);
+        Integer existing = ids.get(definition);
+        if (existing != null) return existing;
+        int id = size;
+        ItemStack[] prototypes = this.prototypes;
+        int[] costs = this.costs;
+        int[] rarities = this.rarities;
+        if (id == prototypes.length) {
+            prototypes = Arrays.copyOf(prototypes, id << 1);
+            costs = Arrays.copyOf(costs, id << 1);
+            rarities = Arrays.copyOf(rarities, id << 1);
+        }
+        prototypes[id] = definition.item;
+        costs[id] = cost;
+        rarities[id] = rarity;
+        this.prototypes = prototypes;
+        this.costs = costs;
+        this.rarities = rarities;
+        this.size = id + 1;
+        ids.put(definition, id);
+        return id;
+    }
+
+    /**
+     * Create a new copy of an item
+     *
+     * @param id Id of the item
+     * @return Copy of the item's prototype
+     */
+    public ItemStack create(int id) {
+        return prototypes[id].clone();
+    }
+
+    /**
+     * Get the prototype of an item
+     * <p>This is shared, it should not be modified</p>
+     *
+     * @param id Id of the item
+     * @return Prototype of the item
+     */
+    public ItemStack getPrototype(int id) {
+        return prototypes[id];
+    }
+
+    /**
+     * Get the cost of an item
+     *
+     * @param id Id of the item
+     * @return Cost of the item
+     */
+    public int getCost(int id) {
+        return costs[id];
+    }
+
+    /**
+     * Get the rarity of an item
+     *
+     * @param id Id of the item
+     * @return Rarity of the item
+     */
+    public int getRarity(int id) {
+        return rarities[id];
+    }
+
+    /**
+     * Get the amount of items in this catalog
+     *
+     * @return Size of this catalog
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a read only map of items to their cost
+     *
+     * @param ids Ids of the items
+     * @return Map of items to cost
+     */
+    public Map<ItemStack, Integer> getCostMap(int[] ids) {
+        Map<ItemStack, Integer> map = new LinkedHashMap<>();
+        for (int id : ids) {
+            map.put(prototypes[id], costs[id]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Get a read only map of items to their rarity
+     *
+     * @param ids Ids of the items
+     * @return Map of items to rarity
+     */
+    public Map<ItemStack, Integer> getRarityMap(int[] ids) {
+        Map<ItemStack, Integer> map = new LinkedHashMap<>();
+        for (int id : ids) {
+            map.put(prototypes[id], rarities[id]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static final class Definition {
+
+        private final ItemStack item;
+        private final int cost;
+        private final int rarity;
+
+        private Definition(ItemStack item, int cost, int rarity) {
+            this.item = item;
+            this.cost = cost;
+            this.rarity = rarity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Definition)) return false;
+            Definition other = (Definition) o;
+            return cost == other.cost && rarity == other.rarity && item.equals(other.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(item, cost, rarity);
+        }
+
+    }
+
+}
@@ -152,6 +152,15 @@ public class Language {
     public String cmd_border_size;
     public String cmd_border_center;
     public String cmd_border_timer;
+    public String cmd_snapshot_in_use;
+    public String cmd_snapshot_not_ready;
+    public String cmd_snapshot_none;
+    public String cmd_snapshot_comparing;
+    public String cmd_snapshot_restoring;
+    public String cmd_snapshot_restore_failed;
+    public String cmd_snapshot_creating;
+    public String cmd_snapshot_created;
+    public String cmd_snapshot_create_failed;
     public String listener_not_running;
     public String listener_no_edit_block;
     public String listener_no_interact;
@@ -384,6 +393,15 @@ public class Language {
         cmd_border_center = lang.getString("cmd-border-center");
         cmd_border_size = lang.getString("cmd-border-size");
         cmd_border_timer = lang.getString("cmd-border-timer");
+        cmd_snapshot_in_use = lang.getString("cmd-snapshot-in-use");
+        cmd_snapshot_not_ready = lang.getString("cmd-snapshot-not-ready");
+        cmd_snapshot_none = lang.getString("cmd-snapshot-none");
+        cmd_snapshot_comparing = lang.getString("cmd-snapshot-comparing");
+        cmd_snapshot_restoring = lang.getString("cmd-snapshot-restoring");
+        cmd_snapshot_restore_failed = lang.getString("cmd-snapshot-restore-failed");
+        cmd_snapshot_creating = lang.getString("cmd-snapshot-creating");
+        cmd_snapshot_created = lang.getString("cmd-snapshot-created");
+        cmd_snapshot_create_failed = lang.getString("cmd-snapshot-create-failed");
 
         lb_blank_space = lang.getString("lb-blank-space");
         lb_combined_separator = lang.getString("lb-combined-separator");
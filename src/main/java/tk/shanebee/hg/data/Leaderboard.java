@@ -1,56 +1,87 @@
 package tk.shanebee.hg.data;
 
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.RankTree;
+import tk.shanebee.hg.util.Util;
 
-import java.io.File;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HungerGames leader boards
  * <p>Stores different stats for players in games including wins, deaths, kills and games played.</p>
+ * <p>Each stat is kept in a {@link RankTree}, so updates, ranks and top positions are O(log n).
+ * The sorted lists are only built when asked for, with names from the {@link NameCache}, where every player with a score is pinned.</p>
+ * <p>Each stat is also counted per day, in daily buckets kept for as many days as the longest {@link Window}.
+ * Each window (daily, weekly and monthly) has its own boards, holding the sum of its days' buckets.
+ * When a day ends, a task on the main thread subtracts the buckets that fell out of each window,
+ * and buckets older than every window are removed from storage.</p>
+ * <p>Boards are changed on the main thread, but placeholders may read them from any thread,
+ * so every access to the boards and the sorted lists holds this leaderboard's lock.</p>
+ * <p>Changed stats are kept in a dirty set, and written to the {@link StatsStore} in batches on a background thread
+ * every few seconds and when the plugin is disabled.</p>
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class Leaderboard {
 
     private final HG plugin;
     private final Language lang;
-    private FileConfiguration leaderboardConfig;
-    private File config_file;
-    private final Map<String, Integer> wins;
-    private final Map<String, Integer> kills;
-    private final Map<String, Integer> deaths;
-    private final Map<String, Integer> gamesPlayed;
-
-    private final List<String> sorted_players_wins;
-    private final List<String> sorted_scores_wins;
-    private final List<String> sorted_players_kills;
-    private final List<String> sorted_scores_kills;
-    private final List<String> sorted_players_deaths;
-    private final List<String> sorted_scores_deaths;
-    private final List<String> sorted_players_gamesPlayed;
-    private final List<String> sorted_scores_gamesPlayed;
+    private final NameCache nameCache;
+    private final StatsStore store;
+    private final Map<Stats, RankTree> boards = new EnumMap<>(Stats.class);
+    // Daily buckets, oldest first, the last is today
+    private final Deque<Bucket> buckets = new ArrayDeque<>();
+    // Rolling boards of each window, the sum of the buckets of its days
+    private final Map<Window, Map<Stats, RankTree>> windows = new EnumMap<>(Window.class);
+    // First day of each window, only changed on the main thread
+    private final Map<Window, LocalDate> windowStarts = new EnumMap<>(Window.class);
+    private BukkitTask rolloverTask;
+    // Sorted views, built when asked for and dropped when their stat changes
+    private final Map<Stats, List<String>> sortedPlayers = new EnumMap<>(Stats.class);
+    private final Map<Stats, List<String>> sortedScores = new EnumMap<>(Stats.class);
+    // Version of the name cache the sorted players were built from
+    private int namesVersion;
+    private volatile int version;
+
+    // Latest value of every score changed since the last save, by board
+    private final Map<String, Map<String, Integer>> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
 
     public Leaderboard(HG plugin) {
         this.plugin = plugin;
         this.lang = plugin.getLang();
-        wins = new TreeMap<>();
-        kills = new TreeMap<>();
-        deaths = new TreeMap<>();
-        gamesPlayed = new TreeMap<>();
-        sorted_players_wins = new ArrayList<>();
-        sorted_scores_wins = new ArrayList<>();
-        sorted_players_kills = new ArrayList<>();
-        sorted_scores_kills = new ArrayList<>();
-        sorted_players_deaths = new ArrayList<>();
-        sorted_scores_deaths = new ArrayList<>();
-        sorted_players_gamesPlayed = new ArrayList<>();
-        sorted_scores_gamesPlayed = new ArrayList<>();
+        this.nameCache = plugin.getNameCache();
+        for (Stats stat : Stats.values()) {
+            boards.put(stat, new RankTree());
+        }
+        for (Window window : Window.values()) {
+            Map<Stats, RankTree> windowBoards = new EnumMap<>(Stats.class);
+            for (Stats stat : Stats.values()) {
+                windowBoards.put(stat, new RankTree());
+            }
+            windows.put(window, windowBoards);
+        }
+        this.store = createStore();
         loadLeaderboard();
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "HungerGames-Leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, Config.leaderboardSaveInterval);
+        writer.scheduleWithFixedDelay(this::saveLeaderboard, interval, interval, TimeUnit.SECONDS);
+        scheduleRollover();
     }
 
     /** Add a win to the leaderboard
@@ -59,12 +90,7 @@ public class Leaderboard {
      */
     @Deprecated
     public void addWin(UUID uuid) {
-        if (wins.containsKey(uuid.toString())) {
-            wins.replace(uuid.toString(), wins.get(uuid.toString()) + 1);
-        } else {
-            wins.put(uuid.toString(), 1);
-        }
-        saveLeaderboard();
+        addStat(uuid, Stats.WINS);
     }
 
     /** Add a win to the leaderboard
@@ -83,7 +109,7 @@ public class Leaderboard {
      */
     @Deprecated
     public int getWins(UUID uuid) {
-        return wins.get(uuid.toString());
+        return getStat(uuid, Stats.WINS);
     }
 
     /** Get the wins for a player from the leaderboard
@@ -109,27 +135,18 @@ public class Leaderboard {
      * @param stat Stat to add
      * @param amount Amount to add
      */
-    public void addStat(UUID uuid, Stats stat, int amount) {
-        Map<String, Integer> map;
-        switch (stat) {
-            case KILLS:
-                map = this.kills;
-                break;
-            case DEATHS:
-                map = this.deaths;
-                break;
-            case GAMES:
-                map = this.gamesPlayed;
-                break;
-            default:
-                map = this.wins;
+    public synchronized void addStat(UUID uuid, Stats stat, int amount) {
+        String id = uuid.toString();
+        nameCache.pin(uuid);
+        markDirty(stat.getPath(), id, boards.get(stat).add(uuid, amount));
+        Bucket today = buckets.getLast();
+        markDirty(today.names[stat.ordinal()], id, today.boards.get(stat).add(uuid, amount));
+        for (Window window : Window.values()) {
+            windows.get(window).get(stat).add(uuid, amount);
         }
-        if (map.containsKey(uuid.toString())) {
-            map.replace(uuid.toString(), map.get(uuid.toString()) + amount);
-        } else {
-            map.put(uuid.toString(), amount);
-        }
-        saveLeaderboard();
+        sortedPlayers.remove(stat);
+        sortedScores.remove(stat);
+        version++;
     }
 
     /** Add a stat to the leaderboard (Will default to 1)
@@ -163,22 +180,145 @@ public class Leaderboard {
      * @param stat Stat to get
      * @return Amount of the relative stat
      */
-    public int getStat(UUID uuid, Stats stat) {
-        Map<String, Integer> map;
-        switch (stat) {
-            case KILLS:
-                map = this.kills;
-                break;
-            case DEATHS:
-                map = this.deaths;
-                break;
-            case GAMES:
-                map = this.gamesPlayed;
-                break;
-            default:
-                map = this.wins;
-        }
-        return map.getOrDefault(uuid.toString(), 0);
+    public synchronized int getStat(UUID uuid, Stats stat) {
+        return boards.get(stat).get(uuid);
+    }
+
+    /** Get a stat from the leaderboard of a window
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get
+     * @param window Window to get
+     * @return Amount of the relative stat in the window
+     */
+    public synchronized int getStat(UUID uuid, Stats stat, Window window) {
+        return getBoard(stat, window).get(uuid);
+    }
+
+    /** Get the rank of a player in a stat
+     * <p>Players with the same score share a rank</p>
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get
+     * @return Rank of the player starting at 1, 0 if the player has no score in this stat
+     */
+    public synchronized int getRank(UUID uuid, Stats stat) {
+        return boards.get(stat).getRank(uuid);
+    }
+
+    /** Get the rank of a player in a stat of a window
+     * <p>Players with the same score share a rank</p>
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get
+     * @param window Window to get
+     * @return Rank of the player starting at 1, 0 if the player has no score in the window
+     */
+    public synchronized int getRank(UUID uuid, Stats stat, Window window) {
+        return getBoard(stat, window).getRank(uuid);
+    }
+
+    /** Read the highest scores of a stat from storage
+     * <p>Read on the writer thread after saving changed stats, so it never blocks the calling thread.
+     * Use {@link #getPlayer(Stats, int)} and {@link #getScore(Stats, int)} for scores already in memory</p>
+     * @param stat Stat to get
+     * @param limit Max amount of scores to get
+     * @return Future of a map of player UUIDs to scores, highest first
+     */
+    public CompletableFuture<Map<UUID, Integer>> queryTop(Stats stat, int limit) {
+        return query(() -> store.getTop(stat.getPath(), limit));
+    }
+
+    /** Read the rank of a player in a stat from storage
+     * <p>Read on the writer thread after saving changed stats, so it never blocks the calling thread.
+     * Players with the same score share a rank</p>
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get
+     * @return Future of the rank of the player starting at 1, 0 if the player has no score in this stat
+     */
+    public CompletableFuture<Integer> queryRank(UUID uuid, Stats stat) {
+        return query(() -> store.getRank(uuid, stat.getPath()));
+    }
+
+    private <T> CompletableFuture<T> query(Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            saveLeaderboard();
+            try {
+                return query.run();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    /** Get the amount of players with a score in a stat
+     * @param stat Stat to get
+     * @return Amount of players
+     */
+    public synchronized int getSize(Stats stat) {
+        return boards.get(stat).size();
+    }
+
+    /** Get the amount of players with a score in a stat of a window
+     * @param stat Stat to get
+     * @param window Window to get
+     * @return Amount of players in the window
+     */
+    public synchronized int getSize(Stats stat, Window window) {
+        return getBoard(stat, window).size();
+    }
+
+    /** Get the name of the player at a position in a stat
+     * @param stat Stat to get
+     * @param position Position starting at 1 for the highest score
+     * @return Name of the player, null if there is no player at this position
+     */
+    public synchronized String getPlayer(Stats stat, int position) {
+        return getPlayer(boards.get(stat), position);
+    }
+
+    /** Get the name of the player at a position in a stat of a window
+     * @param stat Stat to get
+     * @param window Window to get
+     * @param position Position starting at 1 for the highest score
+     * @return Name of the player, null if there is no player at this position
+     */
+    public synchronized String getPlayer(Stats stat, Window window, int position) {
+        return getPlayer(getBoard(stat, window), position);
+    }
+
+    private String getPlayer(RankTree board, int position) {
+        if (position < 1 || position > board.size()) return null;
+        return getName(board.getUUID(position - 1));
+    }
+
+    /** Get the score at a position in a stat
+     * @param stat Stat to get
+     * @param position Position starting at 1 for the highest score
+     * @return Score at this position, -1 if there is no player at this position
+     */
+    public synchronized int getScore(Stats stat, int position) {
+        return getScore(boards.get(stat), position);
+    }
+
+    /** Get the score at a position in a stat of a window
+     * @param stat Stat to get
+     * @param window Window to get
+     * @param position Position starting at 1 for the highest score
+     * @return Score at this position, -1 if there is no player at this position
+     */
+    public synchronized int getScore(Stats stat, Window window, int position) {
+        return getScore(getBoard(stat, window), position);
+    }
+
+    private int getScore(RankTree board, int position) {
+        if (position < 1 || position > board.size()) return -1;
+        return board.getScore(position - 1);
+    }
+
+    /** Get the version of the leaderboard
+     * <p>Changes whenever a score changes, so values built from scores know when to rebuild</p>
+     * @return Version of the leaderboard
+     */
+    public int getVersion() {
+        return version;
     }
 
     /** Gets a list of players from a stat
@@ -186,17 +326,23 @@ public class Leaderboard {
      * @param stat Stat to get players from
      * @return Sorted list of players from a stat
      */
-    public List<String> getStatsPlayers(Stats stat) {
-        switch (stat) {
-            case KILLS:
-                return sorted_players_kills;
-            case DEATHS:
-                return sorted_players_deaths;
-            case GAMES:
-                return sorted_players_gamesPlayed;
-            default:
-                return sorted_players_wins;
+    public synchronized List<String> getStatsPlayers(Stats stat) {
+        if (namesVersion != nameCache.getVersion()) {
+            // Names were found since these were built
+            namesVersion = nameCache.getVersion();
+            sortedPlayers.clear();
         }
+        List<String> players = sortedPlayers.get(stat);
+        if (players == null) {
+            RankTree board = boards.get(stat);
+            players = new ArrayList<>(board.size());
+            for (int i = 0; i < board.size(); i++) {
+                players.add(getName(board.getUUID(i)));
+            }
+            players = Collections.unmodifiableList(players);
+            sortedPlayers.put(stat, players);
+        }
+        return players;
     }
 
     /** Gets a list of scores from a stat
@@ -204,78 +350,194 @@ public class Leaderboard {
      * @param stat Stat to get scores from
      * @return Sorted list of scores from a stat
      */
-    public List<String> getStatsScores(Stats stat) {
-        switch (stat) {
-            case KILLS:
-                return sorted_scores_kills;
-            case DEATHS:
-                return sorted_scores_deaths;
-            case GAMES:
-                return sorted_scores_gamesPlayed;
-            default:
-                return sorted_scores_wins;
+    public synchronized List<String> getStatsScores(Stats stat) {
+        List<String> scores = sortedScores.get(stat);
+        if (scores == null) {
+            RankTree board = boards.get(stat);
+            scores = new ArrayList<>(board.size());
+            for (int i = 0; i < board.size(); i++) {
+                scores.add(String.valueOf(board.getScore(i)));
+            }
+            scores = Collections.unmodifiableList(scores);
+            sortedScores.put(stat, scores);
+        }
+        return scores;
+    }
+
+    private void markDirty(String board, String uuid, int score) {
+        dirty.computeIfAbsent(board, k -> new ConcurrentHashMap<>()).put(uuid, score);
+    }
+
+    private RankTree getBoard(Stats stat, Window window) {
+        return windows.get(window).get(stat);
+    }
+
+    // Run the rollover on the main thread once today ends
+    private void scheduleRollover() {
+        long end = buckets.getLast().day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long ticks = Math.max(1, (end - System.currentTimeMillis()) / 50 + 1);
+        rolloverTask = Bukkit.getScheduler().runTaskLater(plugin, this::rollover, ticks);
+    }
+
+    // Start today's bucket and drop days that fell out of each window, only called on the main thread
+    private synchronized void rollover() {
+        LocalDate today = LocalDate.now();
+        if (today.isAfter(buckets.getLast().day)) {
+            buckets.addLast(new Bucket(today));
+            for (Window window : Window.values()) {
+                LocalDate start = window.getStart(today);
+                LocalDate previous = windowStarts.put(window, start);
+                Map<Stats, RankTree> windowBoards = windows.get(window);
+                for (Bucket bucket : buckets) {
+                    if (!bucket.day.isBefore(start)) break;
+                    if (bucket.day.isBefore(previous)) continue;
+                    for (Stats stat : Stats.values()) {
+                        subtract(windowBoards.get(stat), bucket.boards.get(stat));
+                    }
+                }
+            }
+            LocalDate oldest = Window.getOldest(today);
+            while (buckets.getFirst().day.isBefore(oldest)) {
+                for (String board : buckets.removeFirst().names) {
+                    dirty.remove(board);
+                }
+            }
+            sortedPlayers.clear();
+            sortedScores.clear();
+            version++;
+            writer.execute(() -> expire(oldest));
+        }
+        scheduleRollover();
+    }
+
+    private static void subtract(RankTree window, RankTree bucket) {
+        for (int i = 0; i < bucket.size(); i++) {
+            UUID uuid = bucket.getUUID(i);
+            int score = window.get(uuid) - bucket.getScore(i);
+            if (score > 0) {
+                window.set(uuid, score);
+            } else {
+                window.remove(uuid);
+            }
         }
     }
 
+    // Only called on the writer thread, which owns the store once loaded
     private void saveLeaderboard() {
-        leaderboardConfig.set("Total-Wins", wins);
-        leaderboardConfig.set("Total-Deaths", deaths);
-        leaderboardConfig.set("Total-Kills", kills);
-        leaderboardConfig.set("Games-Played", gamesPlayed);
+        Map<String, Map<String, Integer>> changes = new HashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> board : dirty.entrySet()) {
+            Map<String, Integer> pending = board.getValue();
+            Map<String, Integer> changed = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+                String uuid = entry.getKey();
+                Integer score = entry.getValue();
+                // Keep entries changed again in the meantime for the next save
+                pending.remove(uuid, score);
+                changed.put(uuid, score);
+            }
+            if (!changed.isEmpty()) {
+                changes.put(board.getKey(), changed);
+            }
+        }
+        if (changes.isEmpty()) return;
+
         try {
-            leaderboardConfig.save(config_file);
+            store.save(changes);
         } catch (IOException e) {
-            e.printStackTrace();
+            Util.warning("Failed to save leaderboard: %s", e.getMessage());
+            // Try again on the next save, unless changed again in the meantime
+            changes.forEach((board, changed) -> changed.forEach((uuid, score) ->
+                    dirty.computeIfAbsent(board, k -> new ConcurrentHashMap<>()).putIfAbsent(uuid, score)));
         }
-        sortScores(wins, sorted_scores_wins, sorted_players_wins);
-        sortScores(kills, sorted_scores_kills, sorted_players_kills);
-        sortScores(deaths, sorted_scores_deaths, sorted_players_deaths);
-        sortScores(gamesPlayed, sorted_scores_gamesPlayed, sorted_players_gamesPlayed);
     }
 
-    private void loadLeaderboard() {
-        config_file = new File(plugin.getDataFolder(), "leaderboard.yml");
-        if (!config_file.exists()) {
-            plugin.saveResource("leaderboard.yml", true);
+    private void expire(LocalDate oldest) {
+        try {
+            store.expire(oldest.toString());
+        } catch (IOException e) {
+            Util.warning("Failed to remove old daily leaderboards: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Write all changed stats and stop the writer thread
+     * <p>Internally used when the plugin is unloaded</p>
+     */
+    public void shutdown() {
+        if (rolloverTask != null) {
+            rolloverTask.cancel();
         }
-        leaderboardConfig = YamlConfiguration.loadConfiguration(config_file);
-        getLeaderboard("Total-Wins", wins, sorted_scores_wins, sorted_players_wins);
-        getLeaderboard("Total-Kills", kills, sorted_scores_kills, sorted_players_kills);
-        getLeaderboard("Total-Deaths", deaths, sorted_scores_deaths, sorted_players_deaths);
-        getLeaderboard("Games-Played", gamesPlayed, sorted_scores_gamesPlayed, sorted_players_gamesPlayed);
-    }
-
-    private void getLeaderboard(String path, Map<String, Integer> map, List<String> scores, List<String> players) {
-        if (leaderboardConfig.getConfigurationSection(path) != null) {
-            //noinspection ConstantConditions
-            for (String key : leaderboardConfig.getConfigurationSection(path).getKeys(false)) {
-                map.put(key, leaderboardConfig.getInt(path + "." + key));
+        writer.execute(this::saveLeaderboard);
+        writer.execute(store::close);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                Util.warning("Timed out waiting for leaderboard save");
             }
-            sortScores(map, scores, players);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void sortScores(Map<String, Integer> map, List<String> scores, List<String> players) {
-        scores.clear();
-        players.clear();
-        for (Map.Entry<String, Integer> sortingMap : entriesSortedByValues(map)) {
-            String player = Bukkit.getOfflinePlayer(UUID.fromString(sortingMap.getKey())).getName();
-            int score = sortingMap.getValue();
-            scores.add(String.valueOf(score));
-            players.add(player != null ? player : lang.lb_missing_player);
+    private StatsStore createStore() {
+        if (Config.leaderboardStorage.equalsIgnoreCase("sqlite")) {
+            try {
+                return new SqliteStatsStore(plugin);
+            } catch (IOException e) {
+                Util.warning("Failed to open leaderboard database, using leaderboard.yml instead: %s", e.getMessage());
+            }
         }
+        return new YamlStatsStore(plugin);
     }
 
-    private static <K, V extends Comparable<? super V>> SortedSet<Map.Entry<K, V>> entriesSortedByValues(Map<K, V> map) {
-        SortedSet<Map.Entry<K, V>> sortedEntries = new TreeSet<>(
-                (Map.Entry<K, V> e2, Map.Entry<K, V> e1) -> {
-                    int res = e1.getValue().compareTo(e2.getValue());
-                    if (res == 0) return 1;
-                    else return res;
+    private void loadLeaderboard() {
+        for (Stats stat : Stats.values()) {
+            RankTree board = boards.get(stat);
+            loadBoard(stat.getPath(), board);
+            // Players in windows always have an all time score too
+            for (int i = 0; i < board.size(); i++) {
+                nameCache.pin(board.getUUID(i));
+            }
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate oldest = Window.getOldest(today);
+        expire(oldest);
+        for (Window window : Window.values()) {
+            windowStarts.put(window, window.getStart(today));
+        }
+        for (LocalDate day = oldest; !day.isAfter(today); day = day.plusDays(1)) {
+            Bucket bucket = new Bucket(day);
+            buckets.addLast(bucket);
+            for (Stats stat : Stats.values()) {
+                RankTree board = bucket.boards.get(stat);
+                loadBoard(bucket.names[stat.ordinal()], board);
+                for (Window window : Window.values()) {
+                    if (day.isBefore(windowStarts.get(window))) continue;
+                    RankTree windowBoard = windows.get(window).get(stat);
+                    for (int i = 0; i < board.size(); i++) {
+                        windowBoard.add(board.getUUID(i), board.getScore(i));
+                    }
                 }
-        );
-        sortedEntries.addAll(map.entrySet());
-        return sortedEntries;
+            }
+        }
+    }
+
+    private void loadBoard(String board, RankTree tree) {
+        try {
+            store.load(board, tree);
+        } catch (IOException e) {
+            Util.warning("Failed to load leaderboard '%s': %s", board, e.getMessage());
+        }
+    }
+
+    private String getName(UUID uuid) {
+        String name = nameCache.getName(uuid);
+        return name != null ? name : lang.lb_missing_player;
+    }
+
+    // Read from the store, only run on the writer thread
+    private interface Query<T> {
+        T run() throws IOException;
     }
 
     /**
@@ -285,31 +547,124 @@ public class Leaderboard {
         /**
          * Amount of times a player has won a game
          */
-        WINS("wins"),
+        WINS("wins", "Total-Wins"),
         /**
          * Amount of players a player has killed in a game
          */
-        KILLS("kills"),
+        KILLS("kills", "Total-Kills"),
         /**
          * Amount of times a player has died in a game
          */
-        DEATHS("deaths"),
+        DEATHS("deaths", "Total-Deaths"),
         /**
          * Amount of games a player has played
          * <p>Only counted for a game a player has either won or died in. Leaving a game does not count</p>
          */
-        GAMES("games");
+        GAMES("games", "Games-Played");
 
         private final String stat;
+        private final String path;
 
-        Stats(String stat) {
+        Stats(String stat, String path) {
             this.stat = stat;
+            this.path = path;
         }
 
         public String getName() {
             return this.stat;
         }
 
+        String getPath() {
+            return this.path;
+        }
+
+    }
+
+    /**
+     * Time windows for leaderboards
+     * <p>Windows are rolling, made of whole days ending today. Days start at midnight in the server's time zone</p>
+     */
+    public enum Window {
+        /**
+         * Stats of today
+         */
+        DAILY("daily", 1),
+        /**
+         * Stats of the last 7 days, including today
+         */
+        WEEKLY("weekly", 7),
+        /**
+         * Stats of the last 30 days, including today
+         */
+        MONTHLY("monthly", 30);
+
+        private final String name;
+        private final int days;
+
+        Window(String name, int days) {
+            this.name = name;
+            this.days = days;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Get the amount of days in this window
+         *
+         * @return Amount of days, including today
+         */
+        public int getDays() {
+            return this.days;
+        }
+
+        /**
+         * Get a window by name
+         *
+         * @param name Name of the window, ie: 'weekly'
+         * @return Window with this name, null if none match
+         */
+        public static Window getByName(String name) {
+            for (Window window : values()) {
+                if (window.name.equalsIgnoreCase(name)) return window;
+            }
+            return null;
+        }
+
+        // First day in this window
+        private LocalDate getStart(LocalDate today) {
+            return today.minusDays(days - 1);
+        }
+
+        // First day in any window
+        private static LocalDate getOldest(LocalDate today) {
+            LocalDate oldest = today;
+            for (Window window : values()) {
+                LocalDate start = window.getStart(today);
+                if (start.isBefore(oldest)) oldest = start;
+            }
+            return oldest;
+        }
+
+    }
+
+    // Stats counted on a single day
+    private static class Bucket {
+
+        private final LocalDate day;
+        private final Map<Stats, RankTree> boards = new EnumMap<>(Stats.class);
+        // Names of the boards in storage, by stat ordinal
+        private final String[] names = new String[Stats.values().length];
+
+        private Bucket(LocalDate day) {
+            this.day = day;
+            for (Stats stat : Stats.values()) {
+                boards.put(stat, new RankTree());
+                names[stat.ordinal()] = StatsStore.DAYS + "." + day + "." + stat.getPath();
+            }
+        }
+
     }
 
 }
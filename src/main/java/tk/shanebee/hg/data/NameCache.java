@@ -0,0 +1,241 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of player names by UUID
+ * <p>Names of players on the leaderboard are pinned and always kept. Other names are kept up to a set amount,
+ * dropping the least recently used. Names older than their time to live are still returned, but looked up again. Names not in the cache are looked up on a background thread,
+ * so looking up a name never touches the server's user cache or disk on the main thread.</p>
+ * <p>Names are cached when a player joins, and saved to names.yml next to leaderboard.yml.</p>
+ */
+public class NameCache {
+
+    // Least recently used names of players not pinned, also the lock for both maps
+    private final Map<UUID, Entry> names;
+    private final Map<UUID, Entry> pinnedNames = new HashMap<>();
+    private final Set<UUID> pinned = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor;
+    private final File file;
+    private final long ttl;
+    private volatile int version;
+    private volatile boolean dirty;
+
+    public NameCache(HG plugin) {
+        int maxSize = Math.max(1, Config.nameCacheSize);
+        this.ttl = TimeUnit.HOURS.toMillis(Math.max(1, Config.nameCacheTtl));
+        this.names = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.file = new File(plugin.getDataFolder(), "names.yml");
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "HungerGames-Names");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, Config.leaderboardSaveInterval);
+        executor.scheduleWithFixedDelay(this::save, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the name of a player
+     * <p>If the name is not cached yet it is looked up in the background, and null is returned until it is found</p>
+     *
+     * @param uuid UUID of the player
+     * @return Name of the player, null if not cached yet
+     */
+    public String getName(UUID uuid) {
+        Entry entry;
+        synchronized (names) {
+            entry = pinnedNames.get(uuid);
+            if (entry == null) {
+                entry = names.get(uuid);
+            }
+        }
+        if (entry == null || System.currentTimeMillis() - entry.time > ttl) {
+            lookup(uuid);
+        }
+        return entry != null ? entry.name : null;
+    }
+
+    /**
+     * Cache the name of a player
+     *
+     * @param uuid UUID of the player
+     * @param name Name of the player
+     */
+    public void put(UUID uuid, String name) {
+        Entry entry = new Entry(name, System.currentTimeMillis());
+        Entry previous;
+        synchronized (names) {
+            if (pinned.contains(uuid)) {
+                previous = pinnedNames.put(uuid, entry);
+                // Only names on the leaderboard are shown in views
+                if (previous == null || !previous.name.equals(name)) {
+                    version++;
+                }
+            } else {
+                names.put(uuid, entry);
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * Pin the name of a player, so it is never dropped from the cache
+     * <p>Internally used by the {@link Leaderboard} for every player with a score</p>
+     *
+     * @param uuid UUID of the player
+     */
+    public void pin(UUID uuid) {
+        if (!pinned.add(uuid)) return;
+        synchronized (names) {
+            Entry entry = names.remove(uuid);
+            if (entry != null) {
+                pinnedNames.put(uuid, entry);
+                version++;
+            }
+        }
+    }
+
+    /**
+     * Get the version of this cache
+     * <p>Changes whenever a name of a pinned player is added or changed, so views built from names know when to rebuild</p>
+     *
+     * @return Version of this cache
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the amount of cached names
+     *
+     * @return Amount of cached names
+     */
+    public int size() {
+        synchronized (names) {
+            return pinnedNames.size() + names.size();
+        }
+    }
+
+    private void lookup(UUID uuid) {
+        if (executor.isShutdown() || !pending.add(uuid)) return;
+        executor.execute(() -> {
+            try {
+                String name = Bukkit.getOfflinePlayer(uuid).getName();
+                if (name != null) {
+                    put(uuid, name);
+                }
+            } finally {
+                pending.remove(uuid);
+            }
+        });
+    }
+
+    /**
+     * Load the names saved in names.yml
+     * <p>Internally used once the leaderboard is loaded, so names of pinned players are all kept</p>
+     */
+    public void load() {
+        if (!file.exists()) return;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        synchronized (names) {
+            for (String key : config.getKeys(false)) {
+                ConfigurationSection section = config.getConfigurationSection(key);
+                if (section == null || section.getString("name") == null) continue;
+                try {
+                    UUID uuid = UUID.fromString(key);
+                    Entry entry = new Entry(section.getString("name"), section.getLong("time"));
+                    (pinned.contains(uuid) ? pinnedNames : names).put(uuid, entry);
+                } catch (IllegalArgumentException ignore) {
+                    Util.warning("Skipping invalid uuid '%s' in names.yml", key);
+                }
+            }
+        }
+        version++;
+    }
+
+    // Only called on the background thread
+    private void save() {
+        if (!dirty) return;
+        dirty = false;
+        YamlConfiguration config = new YamlConfiguration();
+        synchronized (names) {
+            for (Map.Entry<UUID, Entry> entry : pinnedNames.entrySet()) {
+                set(config, entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<UUID, Entry> entry : names.entrySet()) {
+                set(config, entry.getKey(), entry.getValue());
+            }
+        }
+        Path path = file.toPath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.write(temp, config.saveToString().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Util.warning("Failed to save names: %s", e.getMessage());
+        }
+    }
+
+    private static void set(YamlConfiguration config, UUID uuid, Entry entry) {
+        String key = uuid.toString();
+        config.set(key + ".name", entry.name);
+        config.set(key + ".time", entry.time);
+    }
+
+    /**
+     * Save the cache and stop the background thread
+     * <p>Internally used when the plugin is unloaded</p>
+     */
+    public void shutdown() {
+        executor.execute(this::save);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                Util.warning("Timed out waiting for name cache save");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Entry {
+
+        private final String name;
+        private final long time;
+
+        private Entry(String name, long time) {
+            this.name = name;
+            this.time = time;
+        }
+
+    }
+
+}
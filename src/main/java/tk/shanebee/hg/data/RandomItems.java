@@ -8,7 +8,6 @@ import tk.shanebee.hg.util.Util;
 
 import java.io.File;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Handler for random items
@@ -19,6 +18,8 @@ public class RandomItems {
     private File customConfigFile = null;
     public int size = 0;
     private final HG plugin;
+    private int[] items = new int[0];
+    private int[] bonusItems = new int[0];
 
     public RandomItems(HG plugin) {
         this.plugin = plugin;
@@ -39,13 +40,34 @@ public class RandomItems {
     }
 
     public void load() {
-        loadItems(item.getStringList("items"), plugin.getItemCostMap(), plugin.getItemRarityMap());
-        loadItems(item.getStringList("bonus"), plugin.getBonusCostMap(), plugin.getBonusRarityMap());
-        Util.log(plugin.getItemRarityMap().keySet().size() + " Random items have been &aloaded!");
-        Util.log(plugin.getBonusRarityMap().keySet().size() + " Random bonus items have been &aloaded!");
+        items = loadItems(item.getStringList("items"));
+        bonusItems = loadItems(item.getStringList("bonus"));
+        Util.log(items.length + " Random items have been &aloaded!");
+        Util.log(bonusItems.length + " Random bonus items have been &aloaded!");
     }
 
-    void loadItems(List<String> itemDefinitions, Map<ItemStack, Integer> costMap, Map<ItemStack, Integer> rarityMap) {
+    /**
+     * Get the default random items
+     *
+     * @return Ids of the default items in the {@link ItemCatalog}
+     */
+    public int[] getItems() {
+        return items;
+    }
+
+    /**
+     * Get the default random bonus items
+     *
+     * @return Ids of the default bonus items in the {@link ItemCatalog}
+     */
+    public int[] getBonusItems() {
+        return bonusItems;
+    }
+
+    int[] loadItems(List<String> itemDefinitions) {
+        ItemCatalog catalog = plugin.getItemCatalog();
+        int[] ids = new int[itemDefinitions.size()];
+        int i = 0;
         for (String s : itemDefinitions) {
             int cost = 1;
             int rarity = 1;
@@ -78,9 +100,9 @@ public class RandomItems {
             }
             String itemStackStr = s.replaceAll("cost:", "").replaceAll("rarity:", "");
             ItemStack readItem = plugin.getItemStackManager().getItem(itemStackStr, true);
-            costMap.put(readItem, cost);
-            rarityMap.put(readItem, rarity);
+            ids[i++] = catalog.register(readItem, cost, rarity);
         }
+        return ids;
     }
 
 }
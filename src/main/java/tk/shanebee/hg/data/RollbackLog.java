@@ -0,0 +1,341 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.game.BlockJournal;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.Util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-ahead log of a {@link Game Game's} {@link BlockJournal}
+ * <p>Every journaled block is appended to a per arena file in the 'rollback' folder,
+ * so arenas can still be restored after a crash. Entries are encoded on the main thread
+ * and written in batches on a single background thread, and each batch is forced to disk.
+ * The file is deleted once the arena is rolled back.</p>
+ * <p>Format: header (magic, version), followed by records.
+ * Palette record: type 0, palette id, block data string.
+ * Entry record: type 1, packed block position, palette id.</p>
+ */
+public class RollbackLog {
+
+    private static final int MAGIC = 0x48474C47;
+    private static final byte VERSION = 1;
+    private static final byte PALETTE = 0;
+    private static final byte ENTRY = 1;
+
+    private static ExecutorService executor;
+
+    private final Game game;
+    private final Map<BlockData, Integer> palette = new HashMap<>();
+    private int nextId;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private Path path;
+    private boolean open;
+    private boolean flushQueued;
+    // Only touched on the writer thread
+    private FileChannel channel;
+
+    public RollbackLog(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Append a journaled block to this log
+     *
+     * @param key  Packed position of the block
+     * @param data Original data of the block
+     */
+    public void append(long key, BlockData data) {
+        synchronized (this) {
+            try {
+                if (!open) {
+                    open = true;
+                    path = getFile(game).toPath();
+                    out.writeInt(MAGIC);
+                    out.writeByte(VERSION);
+                }
+                Integer id = palette.get(data);
+                if (id == null) {
+                    id = nextId++;
+                    palette.put(data, id);
+                    out.writeByte(PALETTE);
+                    out.writeInt(id);
+                    out.writeUTF(data.getAsString());
+                }
+                out.writeByte(ENTRY);
+                out.writeLong(key);
+                out.writeInt(id);
+            } catch (IOException ignore) {
+                // Writing to a byte array can't fail
+            }
+            if (flushQueued) return;
+            flushQueued = true;
+        }
+        // Everything appended until the writer gets to this is written in one batch
+        getExecutor().execute(this::flush);
+    }
+
+    private void flush() {
+        byte[] bytes;
+        Path path;
+        synchronized (this) {
+            flushQueued = false;
+            if (buffer.size() == 0) return;
+            bytes = buffer.toByteArray();
+            buffer.reset();
+            path = this.path;
+        }
+        try {
+            if (channel == null) {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            Util.warning("Failed to write rollback log for arena '%s': %s", game.getGameArenaData().getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Discard this log
+     * <p>Called once the arena has been rolled back, deletes the file</p>
+     */
+    public void discard() {
+        Path path;
+        synchronized (this) {
+            if (!open) return;
+            open = false;
+            path = this.path;
+            palette.clear();
+            nextId = 0;
+            buffer.reset();
+        }
+        getExecutor().execute(() -> {
+            try {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                Util.warning("Failed to delete rollback log for arena '%s': %s", game.getGameArenaData().getName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Replay a log left over from a crash as a rollback
+     * <p>Logs of arenas whose world is not loaded yet are kept until it loads.
+     * Only games that are not in progress and not logging already are recovered,
+     * so a live log is never replayed when an arena world is loaded again.</p>
+     *
+     * @param game Game to recover
+     */
+    public static void recover(Game game) {
+        Status status = game.getGameArenaData().getStatus();
+        if (status != Status.READY && status != Status.NOTREADY) return;
+        RollbackLog log = game.getGameBlockData().getJournal().getLog();
+        synchronized (log) {
+            if (log.open) return;
+        }
+        File file = getFile(game);
+        if (!file.exists()) return;
+        Bound bound = game.getGameArenaData().getBound();
+        World world = bound != null ? bound.getWorld() : null;
+        if (world == null) return;
+
+        String name = game.getGameArenaData().getName();
+        BlockJournal journal = game.getGameBlockData().getJournal();
+        List<String> palette = new ArrayList<>();
+        Map<Integer, BlockData> parsed = new HashMap<>();
+        // Length of the log up to the last complete record
+        long length = 0;
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())));
+             DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                Util.warning("Unknown rollback log format for arena '%s', skipping", name);
+                return;
+            }
+            length = counter.count;
+            while (true) {
+                byte type = in.readByte();
+                if (type == PALETTE) {
+                    int id = in.readInt();
+                    String data = in.readUTF();
+                    while (palette.size() <= id) palette.add(null);
+                    palette.set(id, data);
+                    length = counter.count;
+                } else if (type == ENTRY) {
+                    long key = in.readLong();
+                    int id = in.readInt();
+                    BlockData data = parsed.computeIfAbsent(id, i -> {
+                        try {
+                            return Bukkit.createBlockData(palette.get(i));
+                        } catch (Exception e) {
+                            return null;
+                        }
+                    });
+                    if (data != null) {
+                        journal.recover(key, world, data);
+                    }
+                    length = counter.count;
+                } else {
+                    break;
+                }
+            }
+        } catch (EOFException ignore) {
+            // End of log, the last record may have been cut off by the crash
+        } catch (IOException e) {
+            Util.warning("Failed to read rollback log for arena '%s': %s", name, e.getMessage());
+            return;
+        }
+
+        // Keep the file until the rollback finishes, so another crash doesn't lose it
+        Map<BlockData, Integer> ids = new HashMap<>();
+        for (int id = 0; id < palette.size(); id++) {
+            if (palette.get(id) == null) continue;
+            int i = id;
+            BlockData data = parsed.computeIfAbsent(id, k -> {
+                try {
+                    return Bukkit.createBlockData(palette.get(i));
+                } catch (Exception e) {
+                    return null;
+                }
+            });
+            if (data != null) {
+                ids.putIfAbsent(data, id);
+            }
+        }
+        journal.getLog().resume(file.toPath(), length, ids, palette.size());
+        if (journal.isEmpty()) {
+            journal.clear();
+            return;
+        }
+        Util.log("Recovering %s blocks for arena '%s' after an unclean shutdown", journal.size(), name);
+        if (game.getGameArenaData().getStatus() == Status.READY) {
+            HG.getPlugin().getManager().getRollbackCoordinator().rollback(game);
+        } else {
+            game.getGameBlockData().forceRollback();
+        }
+    }
+
+    // Continue writing to a recovered log, after its last complete record
+    private void resume(Path path, long length, Map<BlockData, Integer> ids, int nextId) {
+        synchronized (this) {
+            this.path = path;
+            this.open = true;
+            this.palette.putAll(ids);
+            this.nextId = nextId;
+        }
+        getExecutor().execute(() -> {
+            try {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                // Drop a record cut off by the crash, so new records follow a complete one
+                channel.truncate(length);
+                channel.position(length);
+            } catch (IOException e) {
+                Util.warning("Failed to reopen rollback log for arena '%s': %s", game.getGameArenaData().getName(), e.getMessage());
+            }
+        });
+    }
+
+    private static File getFile(Game game) {
+        return new File(HG.getPlugin().getDataFolder(), "rollback" + File.separator + game.getGameArenaData().getName() + ".log");
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "HungerGames-RollbackLog");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Write all pending logs and stop the writer thread
+     * <p>Internally used when the plugin is unloaded</p>
+     */
+    public static synchronized void shutdown() {
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                Util.warning("Timed out writing rollback logs");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    // Counts the bytes read, to find where the last complete record ends
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+package tk.shanebee.hg.data;
+
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.RankTree;
+import tk.shanebee.hg.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stats stored in a local SQLite database, leaderboard.db
+ * <p>Scores are kept in one row per player and board, indexed by board and score,
+ * so only changed rows are written on save and top scores and ranks can be queried without reading every row.</p>
+ * <p>When the database is new, all boards in leaderboard.yml are copied into it once.
+ * leaderboard.yml is left in place, but is not updated while this store is used.</p>
+ */
+public class SqliteStatsStore implements StatsStore {
+
+    private static final String UPSERT = "INSERT INTO stats (uuid, board, score) VALUES (?, ?, ?) " +
+            "ON CONFLICT (uuid, board) DO UPDATE SET score = excluded.score";
+
+    private final Connection connection;
+
+    public SqliteStatsStore(HG plugin) throws IOException {
+        File file = new File(plugin.getDataFolder(), "leaderboard.db");
+        try {
+            Class.forName("org.sqlite.JDBC");
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS stats (" +
+                        "uuid CHAR(36) NOT NULL, " +
+                        "board VARCHAR(64) NOT NULL, " +
+                        "score INTEGER NOT NULL, " +
+                        "PRIMARY KEY (uuid, board))");
+                statement.execute("CREATE INDEX IF NOT EXISTS stats_score ON stats (board, score DESC)");
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite driver not found");
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        try {
+            migrate(plugin);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void load(String board, RankTree tree) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT uuid, score FROM stats WHERE board = ?")) {
+            statement.setString(1, board);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String uuid = result.getString(1);
+                    try {
+                        tree.set(UUID.fromString(uuid), result.getInt(2));
+                    } catch (IllegalArgumentException ignore) {
+                        Util.warning("Skipping invalid uuid '%s' in leaderboard", uuid);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void save(Map<String, Map<String, Integer>> changes) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (Map.Entry<String, Map<String, Integer>> entry : changes.entrySet()) {
+                    String board = entry.getKey();
+                    for (Map.Entry<String, Integer> score : entry.getValue().entrySet()) {
+                        statement.setString(1, score.getKey());
+                        statement.setString(2, board);
+                        statement.setInt(3, score.getValue());
+                        statement.addBatch();
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<UUID, Integer> getTop(String board, int limit) throws IOException {
+        Map<UUID, Integer> top = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT uuid, score FROM stats WHERE board = ? ORDER BY score DESC, uuid LIMIT ?")) {
+            statement.setString(1, board);
+            statement.setInt(2, limit);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    top.put(UUID.fromString(result.getString(1)), result.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return top;
+    }
+
+    @Override
+    public int getRank(UUID uuid, String board) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT (SELECT COUNT(*) FROM stats s WHERE s.board = p.board AND s.score > p.score) + 1 " +
+                        "FROM stats p WHERE p.board = ? AND p.uuid = ?")) {
+            statement.setString(1, board);
+            statement.setString(2, uuid.toString());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void expire(String oldest) throws IOException {
+        // Days are ISO dates, so boards of older days sort before the oldest day kept
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM stats WHERE board LIKE ? AND board < ?")) {
+            statement.setString(1, DAYS + ".%");
+            statement.setString(2, DAYS + "." + oldest);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void migrate(HG plugin) throws IOException {
+        File yaml = new File(plugin.getDataFolder(), "leaderboard.yml");
+        if (!yaml.exists()) return;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM stats")) {
+            if (result.next() && result.getInt(1) > 0) return;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        Map<String, Map<String, Integer>> scores = new YamlStatsStore(plugin).loadAll();
+        int count = 0;
+        for (Map<String, Integer> board : scores.values()) {
+            count += board.size();
+        }
+        save(scores);
+        Util.log("Copied &b%s&7 leaderboard stats from leaderboard.yml to leaderboard.db, " +
+                "leaderboard.yml is no longer updated while using sqlite", count);
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            Util.warning("Failed to close leaderboard database: %s", e.getMessage());
+        }
+    }
+
+}
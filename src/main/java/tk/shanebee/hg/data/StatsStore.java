@@ -0,0 +1,74 @@
+package tk.shanebee.hg.data;
+
+import tk.shanebee.hg.util.RankTree;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage of {@link Leaderboard} stats
+ * <p>Scores are stored per board. All time boards are named by their stat's path, ie: 'Total-Wins'.
+ * Daily buckets of {@link Leaderboard.Window windows} are named by day and stat path, ie: 'Daily.2023-05-01.Total-Wins'.</p>
+ * <p>Stats are loaded once when the leaderboard loads. After that a store is only used from the leaderboard's
+ * writer thread, which saves changed stats in batches and runs queries.</p>
+ */
+public interface StatsStore {
+
+    /**
+     * Prefix of the boards of daily buckets
+     */
+    String DAYS = "Daily";
+
+    /**
+     * Load all scores of a board
+     *
+     * @param board Name of the board to load
+     * @param tree  Tree to load scores into
+     * @throws IOException If the scores could not be read
+     */
+    void load(String board, RankTree tree) throws IOException;
+
+    /**
+     * Save a batch of changed scores
+     *
+     * @param changes Latest score of every changed player (by UUID string) for each board
+     * @throws IOException If the scores could not be written
+     */
+    void save(Map<String, Map<String, Integer>> changes) throws IOException;
+
+    /**
+     * Get the highest scores of a board
+     *
+     * @param board Name of the board
+     * @param limit Max amount of scores to get
+     * @return Map of player UUIDs to scores, highest first
+     * @throws IOException If the scores could not be read
+     */
+    Map<UUID, Integer> getTop(String board, int limit) throws IOException;
+
+    /**
+     * Get the rank of a player in a board
+     * <p>Players with the same score share a rank</p>
+     *
+     * @param uuid  UUID of the player
+     * @param board Name of the board
+     * @return Rank of the player starting at 1, 0 if the player has no score in this board
+     * @throws IOException If the rank could not be read
+     */
+    int getRank(UUID uuid, String board) throws IOException;
+
+    /**
+     * Remove the daily buckets of all days before a day
+     *
+     * @param oldest Oldest day to keep, ie: '2023-05-01'
+     * @throws IOException If the boards could not be removed
+     */
+    void expire(String oldest) throws IOException;
+
+    /**
+     * Close this store
+     */
+    void close();
+
+}
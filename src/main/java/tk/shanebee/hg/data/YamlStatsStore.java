@@ -0,0 +1,146 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.RankTree;
+import tk.shanebee.hg.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stats stored in leaderboard.yml
+ * <p>The whole file is written on each save, to a temp file first, then moved in place.</p>
+ */
+public class YamlStatsStore implements StatsStore {
+
+    private final File file;
+    private final FileConfiguration config;
+
+    public YamlStatsStore(HG plugin) {
+        this.file = new File(plugin.getDataFolder(), "leaderboard.yml");
+        if (!file.exists()) {
+            plugin.saveResource("leaderboard.yml", true);
+        }
+        this.config = YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public void load(String board, RankTree tree) {
+        ConfigurationSection section = config.getConfigurationSection(board);
+        if (section == null) return;
+        for (String key : section.getKeys(false)) {
+            try {
+                tree.set(UUID.fromString(key), section.getInt(key));
+            } catch (IllegalArgumentException ignore) {
+                Util.warning("Skipping invalid uuid '%s' in leaderboard", key);
+            }
+        }
+    }
+
+    @Override
+    public void save(Map<String, Map<String, Integer>> changes) throws IOException {
+        for (Map.Entry<String, Map<String, Integer>> entry : changes.entrySet()) {
+            String board = entry.getKey();
+            entry.getValue().forEach((uuid, score) -> config.set(board + "." + uuid, score));
+        }
+        Path path = file.toPath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, config.saveToString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public Map<UUID, Integer> getTop(String board, int limit) {
+        List<Map.Entry<UUID, Integer>> scores = new ArrayList<>(getScores(board).entrySet());
+        scores.sort(Map.Entry.<UUID, Integer>comparingByValue().reversed()
+                .thenComparing(entry -> entry.getKey().toString()));
+        Map<UUID, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(limit, scores.size()); i++) {
+            top.put(scores.get(i).getKey(), scores.get(i).getValue());
+        }
+        return top;
+    }
+
+    @Override
+    public int getRank(UUID uuid, String board) {
+        Map<UUID, Integer> scores = getScores(board);
+        Integer score = scores.get(uuid);
+        if (score == null) return 0;
+        int rank = 1;
+        for (int other : scores.values()) {
+            if (other > score) rank++;
+        }
+        return rank;
+    }
+
+    private Map<UUID, Integer> getScores(String board) {
+        Map<UUID, Integer> scores = new LinkedHashMap<>();
+        ConfigurationSection section = config.getConfigurationSection(board);
+        if (section == null) return scores;
+        for (String key : section.getKeys(false)) {
+            try {
+                scores.put(UUID.fromString(key), section.getInt(key));
+            } catch (IllegalArgumentException ignore) {
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Get the scores of every board in leaderboard.yml, including boards of old periods
+     * <p>Internally used to copy stats to another store</p>
+     *
+     * @return Map of boards to scores by player UUID string
+     */
+    Map<String, Map<String, Integer>> loadAll() {
+        Map<String, Map<String, Integer>> boards = new LinkedHashMap<>();
+        for (String path : config.getKeys(true)) {
+            if (config.isConfigurationSection(path) || !config.isInt(path)) continue;
+            int split = path.lastIndexOf('.');
+            if (split < 0) continue;
+            String uuid = path.substring(split + 1);
+            try {
+                UUID.fromString(uuid);
+            } catch (IllegalArgumentException ignore) {
+                Util.warning("Skipping invalid uuid '%s' in leaderboard", uuid);
+                continue;
+            }
+            boards.computeIfAbsent(path.substring(0, split), k -> new LinkedHashMap<>()).put(uuid, config.getInt(path));
+        }
+        return boards;
+    }
+
+    @Override
+    public void expire(String oldest) {
+        ConfigurationSection section = config.getConfigurationSection(DAYS);
+        if (section == null) return;
+        for (String key : section.getKeys(false)) {
+            // Days are ISO dates, so they sort by date
+            if (key.compareTo(oldest) < 0) {
+                config.set(DAYS + "." + key, null);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
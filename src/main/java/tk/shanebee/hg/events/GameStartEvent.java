@@ -24,6 +24,13 @@ public class GameStartEvent extends Event {
 		return this.game;
 	}
 
+	/** Get the seed of the match being started
+	 * @return Seed of the match
+	 */
+	public long getSeed() {
+		return this.game.getMatchRandom().getSeed();
+	}
+
 	@SuppressWarnings("NullableProblems")
 	@Override
 	public HandlerList getHandlers() {
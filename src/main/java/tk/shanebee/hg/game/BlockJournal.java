@@ -0,0 +1,220 @@
+package tk.shanebee.hg.game;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.TileState;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.data.RollbackLog;
+import tk.shanebee.hg.util.BlockUtils;
+import tk.shanebee.hg.util.LongIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Rollback journal for a {@link Game Game's} arena
+ * <p>Keeps only the first seen (original) state of each block position, so memory use and
+ * rollback work scale with the number of distinct positions changed rather than the number of edits.
+ * Plain blocks are stored as {@link BlockData}, only tile entities (chests, signs, etc.)
+ * keep a full {@link BlockState} so their contents can be restored.</p>
+ * <p>Every recorded block is also appended to a {@link RollbackLog}, so the arena can be restored after a crash.</p>
+ */
+public class BlockJournal {
+
+    private final RollbackLog log;
+    private final LongIntMap index = new LongIntMap(256);
+    private long[] keys = new long[256];
+    private BlockData[] data = new BlockData[256];
+    private BlockState[] tiles = new BlockState[256];
+    private int size;
+    private World world;
+
+    BlockJournal(RollbackLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Record the original state of a block
+     * <p>Does nothing if this position was already recorded.</p>
+     *
+     * @param block      Block to record
+     * @param includeAir Whether to record the block if it is air
+     */
+    public void record(Block block, boolean includeAir) {
+        long key = BlockUtils.getBlockKey(block.getX(), block.getY(), block.getZ());
+        if (index.containsKey(key)) return;
+        if (!includeAir && block.getType() == Material.AIR) return;
+
+        BlockState state = block.getState();
+        add(key, block.getWorld(), state.getBlockData(), state instanceof TileState ? state : null);
+    }
+
+    /**
+     * Record the original state of a block
+     * <p>Does nothing if this position was already recorded.</p>
+     *
+     * @param state State to record
+     */
+    public void record(BlockState state) {
+        long key = BlockUtils.getBlockKey(state.getX(), state.getY(), state.getZ());
+        if (index.containsKey(key)) return;
+        add(key, state.getWorld(), state.getBlockData(), state instanceof TileState ? state : null);
+    }
+
+    /**
+     * Add a block recovered from a {@link RollbackLog}
+     * <p>Does nothing if this position was already recorded.</p>
+     *
+     * @param key   Packed position of the block
+     * @param world World of the block
+     * @param data  Original data of the block
+     */
+    public void recover(long key, World world, BlockData data) {
+        if (index.containsKey(key)) return;
+        add(key, world, data, null, false);
+    }
+
+    private void add(long key, World world, BlockData blockData, BlockState tile) {
+        add(key, world, blockData, tile, true);
+    }
+
+    private void add(long key, World world, BlockData blockData, BlockState tile, boolean log) {
+        if (this.world == null) {
+            this.world = world;
+        }
+        if (size == keys.length) {
+            int capacity = size << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            data = Arrays.copyOf(data, capacity);
+            tiles = Arrays.copyOf(tiles, capacity);
+        }
+        index.putIfAbsent(key, size);
+        keys[size] = key;
+        data[size] = blockData;
+        tiles[size] = tile;
+        size++;
+        if (log) {
+            this.log.append(key, blockData);
+        }
+    }
+
+    /**
+     * Check if a position has been recorded
+     *
+     * @param x X coord
+     * @param y Y coord
+     * @param z Z coord
+     * @return True if recorded
+     */
+    public boolean isRecorded(int x, int y, int z) {
+        return index.containsKey(BlockUtils.getBlockKey(x, y, z));
+    }
+
+    /**
+     * Restore a single recorded position
+     * <p>Entries should be restored from the last to the first, so blocks
+     * recorded before the blocks attached to them are restored first.</p>
+     *
+     * @param i Index of the entry, from 0 to {@link #size()} - 1
+     */
+    public void restore(int i) {
+        BlockState tile = tiles[i];
+        if (tile != null) {
+            tile.update(true);
+            return;
+        }
+        long key = keys[i];
+        Block block = world.getBlockAt(BlockUtils.getBlockKeyX(key), BlockUtils.getBlockKeyY(key), BlockUtils.getBlockKeyZ(key));
+        block.setBlockData(data[i], true);
+    }
+
+    /**
+     * Restore all recorded positions at once and clear this journal
+     */
+    public void restoreAll() {
+        for (int i = size - 1; i >= 0; i--) {
+            restore(i);
+        }
+        clear();
+    }
+
+    /**
+     * Get the state a recorded position will be restored to
+     *
+     * @param i Index of the entry, from 0 to {@link #size()} - 1
+     * @return BlockState of the original block
+     */
+    public BlockState getState(int i) {
+        if (tiles[i] != null) return tiles[i];
+        long key = keys[i];
+        BlockState state = world.getBlockAt(BlockUtils.getBlockKeyX(key), BlockUtils.getBlockKeyY(key), BlockUtils.getBlockKeyZ(key)).getState();
+        state.setBlockData(data[i]);
+        return state;
+    }
+
+    /**
+     * Get the original block data of a recorded entry
+     *
+     * @param i Index of the entry, from 0 to {@link #size()} - 1
+     * @return BlockData of the original block
+     */
+    public BlockData getBlockData(int i) {
+        return data[i];
+    }
+
+    /**
+     * Get the packed position of a recorded entry
+     *
+     * @param i Index of the entry, from 0 to {@link #size()} - 1
+     * @return Packed position, see {@link BlockUtils#getBlockKey(int, int, int)}
+     */
+    public long getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Get the world of this journal
+     *
+     * @return World the recorded blocks are in, null if nothing was recorded
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the write-ahead log of this journal
+     *
+     * @return Rollback log
+     */
+    public RollbackLog getLog() {
+        return log;
+    }
+
+    /**
+     * @return Number of recorded positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if no positions are recorded
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clear all recorded positions
+     */
+    public void clear() {
+        index.clear();
+        Arrays.fill(data, 0, size, null);
+        Arrays.fill(tiles, 0, size, null);
+        size = 0;
+        world = null;
+        log.discard();
+    }
+
+}
@@ -6,18 +6,22 @@ import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
-import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+import tk.shanebee.hg.util.RegionScanner;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
 
 /**
  * Bounding box object for creating regions
+ * <p>The box itself is immutable. The world is resolved once and cached,
+ * and is only updated when the world is loaded or unloaded.</p>
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
-public class Bound {
+public final class Bound {
 
 	private final int x;
 	private final int y;
@@ -27,6 +31,8 @@ public class Bound {
 	private final int z2;
 	private final String world;
 	private final List<Entity> entities;
+	private World worldRef;
+	private UUID worldId;
 
 	/** Create a new bounding box between 2 sets of coordinates
 	 * @param world World this bound is in
@@ -46,6 +52,7 @@ public class Bound {
 		this.y2 = Math.max(y, y2);
 		this.z2 = Math.max(z, z2);
 		this.entities = new ArrayList<>();
+		setWorld(Bukkit.getWorld(world));
 	}
 
     /** Create a new bounding box between 2 locations (must be in same world)
@@ -58,8 +65,15 @@ public class Bound {
     }
 
 	public Integer[] getRandomLocs() {
-		Random r = new Random();
-		return new Integer[] {r.nextInt(x2 - x + 1) + x, y2, r.nextInt(z2 - z + 1) + z};
+		return getRandomLocs(new SplittableRandom());
+	}
+
+	/** Get random x/z coordinates at the top of this bound
+	 * @param random Random to pick with
+	 * @return Array of x, y and z coordinates
+	 */
+	public Integer[] getRandomLocs(SplittableRandom random) {
+		return new Integer[] {random.nextInt(x2 - x + 1) + x, y2, random.nextInt(z2 - z + 1) + z};
 	}
 
 	/** Check if a location is within the region of this bound
@@ -67,11 +81,48 @@ public class Bound {
 	 * @return True if location is within this bound
 	 */
 	public boolean isInRegion(Location loc) {
-		if (!Objects.requireNonNull(loc.getWorld()).getName().equals(world)) return false;
-		int cx = loc.getBlockX();
-		int cy = loc.getBlockY();
-		int cz = loc.getBlockZ();
-		return (cx >= x && cx <= x2) && (cy >= y && cy <= y2) && (cz >= z && cz <= z2);
+		World w = loc.getWorld();
+		return w != null && contains(w, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+	}
+
+	/** Check if a block is within the region of this bound
+	 * @param block Block to check
+	 * @return True if block is within this bound
+	 */
+	public boolean contains(Block block) {
+		return contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+	}
+
+	/** Check if a set of block coordinates is within the region of this bound
+	 * @param world World of the coordinates
+	 * @param x X coord
+	 * @param y Y coord
+	 * @param z Z coord
+	 * @return True if coordinates are within this bound
+	 */
+	public boolean contains(World world, int x, int y, int z) {
+		return world == worldRef && contains(x, y, z);
+	}
+
+	/** Check if a set of block coordinates is within the region of this bound
+	 * @param worldId UID of the world of the coordinates
+	 * @param x X coord
+	 * @param y Y coord
+	 * @param z Z coord
+	 * @return True if coordinates are within this bound
+	 */
+	public boolean contains(UUID worldId, int x, int y, int z) {
+		return worldId.equals(this.worldId) && contains(x, y, z);
+	}
+
+	/** Check if a set of block coordinates is within this bound, ignoring the world
+	 * @param x X coord
+	 * @param y Y coord
+	 * @param z Z coord
+	 * @return True if coordinates are within this bound
+	 */
+	public boolean contains(int x, int y, int z) {
+		return x >= this.x && x <= x2 && y >= this.y && y <= y2 && z >= this.z && z <= z2;
 	}
 
 	/**
@@ -99,10 +150,12 @@ public class Bound {
 	/** Get location of all blocks of a type within a bound
 	 * @param type Material type to check
 	 * @return ArrayList of locations of all blocks of this type in this bound
+	 * @deprecated Checks every block on the main thread, use {@link RegionScanner} instead
 	 */
+	@Deprecated
 	@SuppressWarnings("unused")
 	public ArrayList<Location> getBlocks(Material type) {
-		World w = Bukkit.getWorld(world);
+		World w = worldRef;
 		ArrayList <Location> array = new ArrayList<>();
 		for (int x3 = x; x3 <= x2; x3++) {
 			for (int y3 = y; y3 <= y2; y3++) {
@@ -118,33 +171,99 @@ public class Bound {
 		return array;
 	}
 
+	/** Get the name of the world of this bound
+	 * @return Name of the world of this bound
+	 */
+	public String getWorldName() {
+		return world;
+	}
+
+	/** Get the lesser x coord of this bound
+	 * @return Lesser x coord
+	 */
+	public int getMinX() {
+		return x;
+	}
+
+	/** Get the lesser y coord of this bound
+	 * @return Lesser y coord
+	 */
+	public int getMinY() {
+		return y;
+	}
+
+	/** Get the lesser z coord of this bound
+	 * @return Lesser z coord
+	 */
+	public int getMinZ() {
+		return z;
+	}
+
+	/** Get the greater x coord of this bound
+	 * @return Greater x coord
+	 */
+	public int getMaxX() {
+		return x2;
+	}
+
+	/** Get the greater y coord of this bound
+	 * @return Greater y coord
+	 */
+	public int getMaxY() {
+		return y2;
+	}
+
+	/** Get the greater z coord of this bound
+	 * @return Greater z coord
+	 */
+	public int getMaxZ() {
+		return z2;
+	}
+
 	/** Get the world of this bound
 	 * @return World of this bound
 	 */
 	public World getWorld() {
-		return Bukkit.getWorld(world);
+		return worldRef;
+	}
+
+	/** Get the UID of the world of this bound
+	 * @return UID of the world, null if the world has never been loaded
+	 */
+	public UUID getWorldId() {
+		return worldId;
+	}
+
+	/** Update the cached world of this bound
+	 * <p>Internally called when the world of this bound is loaded (or unloaded, with null)</p>
+	 * @param world World of this bound, null if unloaded
+	 */
+	public void setWorld(@Nullable World world) {
+		this.worldRef = world;
+		if (world != null) {
+			this.worldId = world.getUID();
+		}
 	}
 
 	/** Get the greater corner of this bound
 	 * @return Location of greater corner
 	 */
 	public Location getGreaterCorner() {
-		return new Location(Bukkit.getWorld(world), x2, y2, z2);
+		return new Location(worldRef, x2, y2, z2);
 	}
 
 	/** Get the lesser corner of this bound
 	 * @return Location of lesser corner
 	 */
 	public Location getLesserCorner() {
-		return new Location(Bukkit.getWorld(world), x, y, z);
+		return new Location(worldRef, x, y, z);
 	}
 
 	/** Get the center location of this bound
 	 * @return The center location
 	 */
 	public Location getCenter() {
-		BoundingBox box = new BoundingBox(x, y, z, x2, y2, z2);
-		return new Location(this.getWorld(), box.getCenterX(), box.getCenterY(), box.getCenterZ());
+		return new Location(worldRef, (x + x2) / 2.0, (y + y2) / 2.0, (z + z2) / 2.0);
 	}
 
     @Override
@@ -0,0 +1,258 @@
+package tk.shanebee.hg.game;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import tk.shanebee.hg.util.BlockUtils;
+import tk.shanebee.hg.util.LongIntMap;
+import tk.shanebee.hg.util.RegionScanner;
+import tk.shanebee.hg.util.Util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Index of the chests and bonus containers in a {@link Game Game's} arena
+ * <p>Each container position gets a slot, built once when the arena loads and extended
+ * when a container outside of the index is used. Filled and player placed state are bitsets
+ * over these slots, so checks are O(1) and refilling only clears bits.
+ * Slots added during a game are dropped again once the arena is rolled back.</p>
+ */
+public class ChestIndex {
+
+    private final LongIntMap slots = new LongIntMap(64);
+    private long[] positions = new long[64];
+    private int size;
+    private final BitSet bonus = new BitSet();
+    private final BitSet filled = new BitSet();
+    private final BitSet playerPlaced = new BitSet();
+    // Slots found by scanning the arena
+    private final BitSet indexed = new BitSet();
+
+    /**
+     * Scan an arena for chests and bonus containers
+     * <p>Runs async, containers found are added as they come in</p>
+     *
+     * @param game Game to scan
+     */
+    void build(Game game) {
+        Bound bound = game.getGameArenaData().getBound();
+        if (bound == null || bound.getWorld() == null) return;
+        RegionScanner.scan(bound, (Material material) -> material == Material.CHEST || BlockUtils.isBonusBlock(material), (locations, types) -> {
+            for (int i = 0; i < locations.size(); i++) {
+                Location location = locations.get(i);
+                int slot = getSlot(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                bonus.set(slot, types.get(i) != Material.CHEST);
+                indexed.set(slot);
+            }
+        }).whenComplete((count, ex) -> {
+            if (ex != null) {
+                Util.warning("Failed to index chests for arena '%s': %s", game.getGameArenaData().getName(), ex.getMessage());
+            } else {
+                Util.debug("Indexed " + count + " chests for arena '" + game.getGameArenaData().getName() + "'");
+            }
+        });
+    }
+
+    private int getSlot(int x, int y, int z) {
+        return getKeySlot(BlockUtils.getBlockKey(x, y, z));
+    }
+
+    private int getKeySlot(long key) {
+        int slot = slots.putIfAbsent(key, size);
+        if (slot != -1) return slot;
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size << 1);
+        }
+        positions[size] = key;
+        return size++;
+    }
+
+    private int getSlot(Location location) {
+        return getSlot(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private int findSlot(Location location) {
+        return slots.get(BlockUtils.getBlockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+    }
+
+    /**
+     * Check if a container was filled or placed by a player
+     *
+     * @param location Location of the container
+     * @return True if filled or player placed
+     */
+    public boolean isLogged(Location location) {
+        int slot = findSlot(location);
+        return slot != -1 && (filled.get(slot) || playerPlaced.get(slot));
+    }
+
+    /**
+     * Mark a container as filled
+     *
+     * @param location Location of the container
+     */
+    public void setFilled(Location location) {
+        filled.set(getSlot(location));
+    }
+
+    /**
+     * Mark a container as not filled
+     *
+     * @param location Location of the container
+     */
+    public void clearFilled(Location location) {
+        int slot = findSlot(location);
+        if (slot != -1) filled.clear(slot);
+    }
+
+    /**
+     * Mark a container as placed by a player
+     *
+     * @param location Location of the container
+     */
+    public void setPlayerPlaced(Location location) {
+        playerPlaced.set(getSlot(location));
+    }
+
+    /**
+     * Mark a container as not placed by a player
+     *
+     * @param location Location of the container
+     */
+    public void clearPlayerPlaced(Location location) {
+        int slot = findSlot(location);
+        if (slot != -1) playerPlaced.clear(slot);
+    }
+
+    /**
+     * Mark all containers as not filled
+     */
+    public void clearFilled() {
+        filled.clear();
+    }
+
+    /**
+     * Drop player placed state and all slots not found by scanning the arena
+     * <p>Internally used once the arena is rolled back, so the index doesn't grow with every game</p>
+     */
+    void reset() {
+        playerPlaced.clear();
+        int oldSize = size;
+        if (indexed.cardinality() == oldSize) return;
+        // Compact in place, slots only ever move down
+        slots.clear();
+        size = 0;
+        for (int slot = indexed.nextSetBit(0); slot >= 0; slot = indexed.nextSetBit(slot + 1)) {
+            int moved = getKeySlot(positions[slot]);
+            bonus.set(moved, bonus.get(slot));
+            filled.set(moved, filled.get(slot));
+        }
+        bonus.clear(size, oldSize);
+        filled.clear(size, oldSize);
+        indexed.clear();
+        indexed.set(0, size);
+    }
+
+    /**
+     * Get the locations of all filled containers
+     *
+     * @param world World of the arena
+     * @return Locations of filled containers
+     */
+    public List<Location> getFilled(World world) {
+        return getLocations(world, filled);
+    }
+
+    /**
+     * Get the locations of all player placed containers
+     *
+     * @param world World of the arena
+     * @return Locations of player placed containers
+     */
+    public List<Location> getPlayerPlaced(World world) {
+        return getLocations(world, playerPlaced);
+    }
+
+    /**
+     * Get the block of an indexed container
+     *
+     * @param world World of the arena
+     * @param slot  Slot of the container
+     * @return Block at this slot
+     */
+    public Block getBlock(World world, int slot) {
+        long key = positions[slot];
+        return world.getBlockAt(BlockUtils.getBlockKeyX(key), BlockUtils.getBlockKeyY(key), BlockUtils.getBlockKeyZ(key));
+    }
+
+    /**
+     * Check if an indexed container is a bonus container
+     *
+     * @param slot Slot of the container
+     * @return True if bonus
+     */
+    public boolean isBonus(int slot) {
+        return bonus.get(slot);
+    }
+
+    /**
+     * Check if an indexed container is filled
+     *
+     * @param slot Slot of the container
+     * @return True if filled
+     */
+    public boolean isFilled(int slot) {
+        return filled.get(slot);
+    }
+
+    /**
+     * Mark an indexed container as filled
+     *
+     * @param slot Slot of the container
+     */
+    public void setFilled(int slot) {
+        filled.set(slot);
+    }
+
+    /**
+     * Check if an indexed container was placed by a player
+     *
+     * @param slot Slot of the container
+     * @return True if player placed
+     */
+    public boolean isPlayerPlaced(int slot) {
+        return playerPlaced.get(slot);
+    }
+
+    /**
+     * Get the amount of indexed containers
+     *
+     * @return Size of this index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the amount of indexed bonus containers
+     *
+     * @return Amount of bonus containers
+     */
+    public int getBonusCount() {
+        return bonus.cardinality();
+    }
+
+    private List<Location> getLocations(World world, BitSet bits) {
+        List<Location> locations = new ArrayList<>(bits.cardinality());
+        for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+            long key = positions[slot];
+            locations.add(new Location(world, BlockUtils.getBlockKeyX(key), BlockUtils.getBlockKeyY(key), BlockUtils.getBlockKeyZ(key)));
+        }
+        return locations;
+    }
+
+}
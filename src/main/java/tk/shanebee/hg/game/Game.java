@@ -8,6 +8,7 @@ import org.bukkit.block.Sign;
 import org.bukkit.entity.Player;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.Status;
+import tk.shanebee.hg.data.ArenaSnapshot;
 import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.data.Leaderboard;
@@ -58,6 +59,7 @@ public class Game {
     final GameItemData gameItemData;
     final GameCommandData gameCommandData;
     final GameBorderData gameBorderData;
+    private final MatchRandom matchRandom = new MatchRandom();
 
     /**
      * Create a new game
@@ -103,7 +105,7 @@ public class Game {
     public Game(String name, Bound bound, int timer, int minPlayers, int maxPlayers, int roam, int cost) {
         this.plugin = HG.getPlugin();
         this.gameArenaData = new GameArenaData(this, name, bound, timer, minPlayers, maxPlayers, roam, cost);
-        this.gameArenaData.status = Status.NOTREADY;
+        this.gameArenaData.status(Status.NOTREADY);
         this.playerManager = HG.getPlugin().getPlayerManager();
         this.lang = plugin.getLang();
         this.kitManager = plugin.getKitManager();
@@ -227,13 +229,26 @@ public class Game {
         return this.mobManager;
     }
 
+    /**
+     * Start the pregame countdown with a set seed
+     * <p>Used to replay a match, player spawns picked before this are not replayed</p>
+     *
+     * @param seed Seed of the match
+     */
+    public void startPreGame(long seed) {
+        matchRandom.reset(seed);
+        startPreGame();
+    }
+
     /**
      * Start the pregame countdown
      */
     public void startPreGame() {
         // Call the GameStartEvent
         Bukkit.getPluginManager().callEvent(new GameStartEvent(this));
-        gameArenaData.status = Status.COUNTDOWN;
+        gameArenaData.status(Status.COUNTDOWN);
+        Util.log("Arena &b%s&7 started with seed &b%s", gameArenaData.name, matchRandom.getSeed());
+        gameItemData.startLootBuffers();
         starting = new StartingTask(this);
         gameBlockData.updateLobbyBlock();
     }
@@ -242,7 +257,7 @@ public class Game {
      * Start the free roam state of the game
      */
     public void startFreeRoam() {
-        gameArenaData.status = Status.BEGINNING;
+        gameArenaData.status(Status.BEGINNING);
         Bukkit.getPluginManager().callEvent(new FreeRoamEvent(this));
         gameBlockData.updateLobbyBlock();
         gameArenaData.bound.removeEntities();
@@ -254,7 +269,7 @@ public class Game {
      * Start the game
      */
     public void startGame() {
-        gameArenaData.status = Status.RUNNING;
+        gameArenaData.status(Status.RUNNING);
         if (Config.spawnmobs) spawner = new SpawnerTask(this, Config.spawnmobsinterval);
         if (Config.randomChest) chestDropManager.startChestDrop();
         gameBlockData.updateLobbyBlock();
@@ -348,6 +363,8 @@ public class Game {
             }
         }
         gameBlockData.clearChests();
+        gameItemData.stopLootBuffers();
+        matchRandom.reset(MatchRandom.newSeed());
         String winner = Util.translateStop(Util.convertUUIDListToStringList(win));
 
         // Broadcast wins
@@ -359,15 +376,19 @@ public class Game {
                 gamePlayerData.msgAllPlayers(broadcast);
             }
         }
-        if (gameBlockData.requiresRollback()) {
+        if (Config.rollbackFromSnapshot && plugin.isEnabled() && ArenaSnapshot.exists(this)) {
+            ArenaSnapshot.restore(this).whenComplete((changed, ex) -> {
+                if (ex != null) ArenaSnapshot.logError(this, ex);
+            });
+        } else if (gameBlockData.requiresRollback()) {
             if (plugin.isEnabled()) {
-                new Rollback(this);
+                plugin.getManager().getRollbackCoordinator().rollback(this);
             } else {
                 // Force rollback if server is stopping
                 gameBlockData.forceRollback();
             }
         } else {
-            gameArenaData.status = Status.READY;
+            gameArenaData.status(Status.READY);
             gameBlockData.updateLobbyBlock();
         }
         gameArenaData.updateBoards();
@@ -29,7 +29,9 @@ public class GameArenaData extends Data {
     @Getter
     Map<Location, UUID> playerSpawnMap;
     Location exit;
-    Status status;
+    volatile Status status;
+    // Only changed on the main thread
+    private static volatile int statusVersion;
     int chestRefillTime = 0;
     int chestRefillRepeat = 0;
     final Board board;
@@ -156,10 +158,26 @@ public class GameArenaData extends Data {
      * @param status Status to set
      */
     public void setStatus(Status status) {
-        this.status = status;
+        status(status);
         game.gameBlockData.updateLobbyBlock();
     }
 
+    // Set the status without updating the lobby sign
+    void status(Status status) {
+        this.status = status;
+        statusVersion++;
+    }
+
+    /**
+     * Get the version of game statuses
+     * <p>Changes whenever the status of any game changes, so values cached from statuses know when to rebuild</p>
+     *
+     * @return Version of game statuses
+     */
+    public static int getStatusVersion() {
+        return statusVersion;
+    }
+
     /**
      * Get the status of the game
      *
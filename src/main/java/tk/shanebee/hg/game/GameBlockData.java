@@ -4,7 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
-import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
@@ -13,11 +13,14 @@ import org.bukkit.block.data.Directional;
 import org.bukkit.entity.ItemFrame;
 import org.bukkit.inventory.InventoryHolder;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.ItemFrameData;
+import tk.shanebee.hg.data.RollbackLog;
+import tk.shanebee.hg.tasks.ChestRefillTask;
+import tk.shanebee.hg.tasks.Rollback;
 import tk.shanebee.hg.util.Util;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -27,10 +30,11 @@ import java.util.List;
 @Setter
 public class GameBlockData extends Data {
 
-    private final List<Location> chests = new ArrayList<>();
-    private final List<Location> playerChests = new ArrayList<>();
-    private final List<BlockState> blocks = new ArrayList<>();
+    private final ChestIndex chestIndex = new ChestIndex();
+    private final BlockJournal journal;
     private final List<ItemFrameData> itemFrameData = new ArrayList<>();
+    private Rollback rollback;
+    private ChestRefillTask chestRefill;
 
     // LobbySign
     private Sign sign1;
@@ -39,6 +43,7 @@ public class GameBlockData extends Data {
 
     protected GameBlockData(Game game) {
         super(game);
+        this.journal = new BlockJournal(new RollbackLog(game));
     }
 
     /**
@@ -47,37 +52,85 @@ public class GameBlockData extends Data {
      * rollback at once, which can cause heavy amounts of lag.</p>
      */
     public void forceRollback() {
-        Collections.reverse(blocks);
-        for (BlockState state : blocks) {
-            state.update(true);
+        journal.restoreAll();
+        if (rollback != null) {
+            rollback.finish();
+        } else {
+            chestIndex.reset();
         }
     }
 
     boolean requiresRollback() {
-        return !blocks.isEmpty() || !itemFrameData.isEmpty();
+        return !journal.isEmpty() || !itemFrameData.isEmpty();
+    }
+
+    /**
+     * Index the chests and bonus containers in this game's arena
+     * <p>Internally used when the arena is loaded or created</p>
+     */
+    public void indexChests() {
+        chestIndex.build(game);
     }
 
     /**
      * Refill chests in this game
+     * <p>Chests are refilled once they are next opened</p>
      */
     public void refillChests() {
-        this.chests.clear();
+        chestIndex.clearFilled();
+    }
+
+    /**
+     * Refill chests in this game
+     * <p>When the refill mode is 'wave', all known chests are filled over the next few ticks,
+     * otherwise chests are refilled once they are next opened</p>
+     *
+     * @param onDone Called once chests were refilled
+     */
+    public void refillChests(Runnable onDone) {
+        if (chestRefill != null) {
+            chestRefill.stop();
+        }
+        if (Config.chestRefillWave) {
+            chestRefill = new ChestRefillTask(game, onDone);
+        } else {
+            refillChests();
+            onDone.run();
+        }
     }
 
     void clearChests() {
-        for (Location loc : chests) {
-            if (loc.getBlock().getState() instanceof InventoryHolder) {
-                ((InventoryHolder) loc.getBlock().getState()).getInventory().clear();
-                loc.getBlock().getState().update();
+        if (chestRefill != null) {
+            chestRefill.stop();
+        }
+        World world = game.getGameArenaData().getBound().getWorld();
+        if (world != null) {
+            for (Location loc : chestIndex.getFilled(world)) {
+                BlockState state = loc.getBlock().getState();
+                if (state instanceof InventoryHolder) {
+                    ((InventoryHolder) state).getInventory().clear();
+                }
             }
         }
-        chests.clear();
+        chestIndex.clearFilled();
     }
 
-    private void addState(BlockState s) {
-        if (s.getType() != Material.AIR) {
-            blocks.add(s);
-        }
+    /**
+     * Get the locations of all filled game chests
+     *
+     * @return List of filled chests
+     */
+    public List<Location> getChests() {
+        return chestIndex.getFilled(game.getGameArenaData().getBound().getWorld());
+    }
+
+    /**
+     * Get the locations of all player placed chests
+     *
+     * @return List of player placed chests
+     */
+    public List<Location> getPlayerChests() {
+        return chestIndex.getPlayerPlaced(game.getGameArenaData().getBound().getWorld());
     }
 
     /**
@@ -86,7 +139,7 @@ public class GameBlockData extends Data {
      * @param location Location of the chest to add (Needs to actually be a chest there)
      */
     public void addGameChest(Location location) {
-        chests.add(location);
+        chestIndex.setFilled(location);
     }
 
     /**
@@ -95,7 +148,7 @@ public class GameBlockData extends Data {
      * @param location Location of the chest
      */
     public void addPlayerChest(Location location) {
-        playerChests.add(location);
+        chestIndex.setPlayerPlaced(location);
     }
 
     /**
@@ -105,7 +158,7 @@ public class GameBlockData extends Data {
      * @return True if this chest was added already
      */
     public boolean isLoggedChest(Location location) {
-        return chests.contains(location) || playerChests.contains(location);
+        return chestIndex.isLogged(location);
     }
 
     /**
@@ -114,7 +167,7 @@ public class GameBlockData extends Data {
      * @param location Location of the chest to remove
      */
     public void removeGameChest(Location location) {
-        chests.remove(location);
+        chestIndex.clearFilled(location);
     }
 
     /**
@@ -123,7 +176,7 @@ public class GameBlockData extends Data {
      * @param location Location of the chest
      */
     public void removePlayerChest(Location location) {
-        playerChests.remove(location);
+        chestIndex.clearPlayerPlaced(location);
     }
 
     /**
@@ -134,18 +187,18 @@ public class GameBlockData extends Data {
     public void recordBlockBreak(Block block) {
         Block top = block.getRelative(BlockFace.UP);
 
-        if (!top.getType().isSolid() || !top.getType().isBlock()) {
-            addState(block.getRelative(BlockFace.UP).getState());
+        if (!journal.isRecorded(top.getX(), top.getY(), top.getZ()) && (!top.getType().isSolid() || !top.getType().isBlock())) {
+            journal.record(top, false);
         }
 
         for (BlockFace bf : Util.faces) {
             Block rel = block.getRelative(bf);
 
-            if (Util.isAttached(block, rel)) {
-                addState(rel.getState());
+            if (!journal.isRecorded(rel.getX(), rel.getY(), rel.getZ()) && Util.isAttached(block, rel)) {
+                journal.record(rel, false);
             }
         }
-        addState(block.getState());
+        journal.record(block, false);
     }
 
     /**
@@ -154,7 +207,7 @@ public class GameBlockData extends Data {
      * @param blockState BlockState to be added to the list
      */
     public void recordBlockPlace(BlockState blockState) {
-        blocks.add(blockState);
+        journal.record(blockState);
     }
 
     /**
@@ -172,11 +225,17 @@ public class GameBlockData extends Data {
 
     /**
      * Get a list of all recorded blocks
+     * <p>Builds a new list of states in the order they should be restored</p>
      *
      * @return List of all recorded blocks
+     * @deprecated Use {@link #getJournal()} instead
      */
+    @Deprecated
     public List<BlockState> getBlocks() {
-         Collections.reverse(blocks);
+        List<BlockState> blocks = new ArrayList<>(journal.size());
+        for (int i = journal.size() - 1; i >= 0; i--) {
+            blocks.add(journal.getState(i));
+        }
         return blocks;
     }
 
@@ -184,7 +243,8 @@ public class GameBlockData extends Data {
      * Clear the current block list
      */
     public void resetBlocks() {
-        this.blocks.clear();
+        this.journal.clear();
+        this.chestIndex.reset();
     }
 
     /**
@@ -2,29 +2,38 @@ package tk.shanebee.hg.game;
 
 import org.bukkit.inventory.ItemStack;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.ItemCatalog;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 
 /**
  * Data class for holding a {@link Game Game's} items
+ * <p>Items are held as ids in the plugin's {@link ItemCatalog}</p>
  */
 @SuppressWarnings("unused")
 public class GameItemData extends Data {
-    private Map<ItemStack, Integer> itemRarityMap;
 
-    private Map<ItemStack, Integer> itemCostMap;
+    private int[] items;
 
-    private Map<ItemStack, Integer> bonusRarityMap;
+    private int[] bonusItems;
 
-    private Map<ItemStack, Integer> bonusCostMap;
+    private LootTable lootTable;
+
+    private LootTable bonusLootTable;
+
+    private final LootBuffer lootBuffer;
+
+    private final LootBuffer bonusLootBuffer;
 
     protected GameItemData(Game game) {
         super(game);
         // Set default items from items.yml (if arenas.yml has items it will override this)
-        this.itemCostMap = game.plugin.getItemCostMap();
-        this.itemRarityMap = game.plugin.getItemRarityMap();
-        this.bonusCostMap = game.plugin.getBonusCostMap();
-        this.bonusRarityMap = game.plugin.getBonusRarityMap();
+        this.items = game.plugin.getRandomItems().getItems();
+        this.bonusItems = game.plugin.getRandomItems().getBonusItems();
+        this.lootBuffer = new LootBuffer(game, false);
+        this.bonusLootBuffer = new LootBuffer(game, true);
     }
 
     /**
@@ -33,24 +42,24 @@ public class GameItemData extends Data {
      * @param item ItemStack to add
      */
     public void addToItems(ItemStack item, int cost, int rarity) {
-        this.itemRarityMap.put(item, rarity);
-        this.itemCostMap.put(item, rarity);
+        this.items = append(items, getCatalog().register(item, cost, rarity));
+        this.lootTable = null;
     }
 
     /**
      * Clear the items for this game
      */
     public void clearItems() {
-        this.itemRarityMap.clear();
-        this.itemCostMap.clear();
+        this.items = new int[0];
+        this.lootTable = null;
     }
 
     /**
      * Reset the items for this game to the plugin's default items list
      */
     public void resetItemsDefault() {
-        this.itemCostMap = HG.getPlugin().getItemCostMap();
-        this.itemRarityMap = HG.getPlugin().getItemRarityMap();
+        this.items = HG.getPlugin().getRandomItems().getItems();
+        this.lootTable = null;
     }
 
 
@@ -60,56 +69,222 @@ public class GameItemData extends Data {
      * @param item ItemStack to add to bonus items
      */
     public void addToBonusItems(ItemStack item, int cost, int rarity) {
-        this.bonusRarityMap.put(item, rarity);
-        this.bonusCostMap.put(item, cost);
+        this.bonusItems = append(bonusItems, getCatalog().register(item, cost, rarity));
+        this.bonusLootTable = null;
     }
 
     /**
      * Clear this game's bonus items
      */
     public void clearBonusItems() {
-        this.bonusCostMap.clear();
-        this.bonusRarityMap.clear();
+        this.bonusItems = new int[0];
+        this.bonusLootTable = null;
+    }
+
+    /**
+     * Get the items of this game
+     *
+     * @return Ids of the items in the {@link ItemCatalog}
+     */
+    public int[] getItems() {
+        return items;
+    }
+
+    /**
+     * Set the items of this game
+     *
+     * @param items Ids of the items in the {@link ItemCatalog}
+     */
+    public void setItems(int[] items) {
+        this.items = items;
+        this.lootTable = null;
+    }
+
+    /**
+     * Get the bonus items of this game
+     *
+     * @return Ids of the bonus items in the {@link ItemCatalog}
+     */
+    public int[] getBonusItems() {
+        return bonusItems;
     }
 
+    /**
+     * Set the bonus items of this game
+     *
+     * @param bonusItems Ids of the bonus items in the {@link ItemCatalog}
+     */
+    public void setBonusItems(int[] bonusItems) {
+        this.bonusItems = bonusItems;
+        this.bonusLootTable = null;
+    }
+
+    /**
+     * Get the items of this game and their rarity
+     *
+     * @return Read only map of items to rarity
+     * @deprecated Use {@link #getItems()} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public Map<ItemStack, Integer> getItemRarityMap() {
-        return itemRarityMap;
+        return getCatalog().getRarityMap(items);
     }
 
+    /**
+     * Set the items of this game and their rarity
+     * <p>Costs are kept for items already in this game, other items cost 1</p>
+     *
+     * @param itemRarityMap Map of items to rarity
+     * @deprecated Use {@link #setItems(int[])} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public void setItemRarityMap(Map<ItemStack, Integer> itemRarityMap) {
-        this.itemRarityMap = itemRarityMap;
+        setItems(register(itemRarityMap.keySet(), getItemCostMap(), itemRarityMap));
     }
 
+    /**
+     * Get the items of this game and their cost
+     *
+     * @return Read only map of items to cost
+     * @deprecated Use {@link #getItems()} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public Map<ItemStack, Integer> getItemCostMap() {
-        return itemCostMap;
+        return getCatalog().getCostMap(items);
     }
 
+    /**
+     * Set the items of this game and their cost
+     * <p>Rarities are kept for items already in this game, other items have a rarity of 1</p>
+     *
+     * @param itemCostMap Map of items to cost
+     * @deprecated Use {@link #setItems(int[])} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public void setItemCostMap(Map<ItemStack, Integer> itemCostMap) {
-        this.itemCostMap = itemCostMap;
+        setItems(register(itemCostMap.keySet(), itemCostMap, getItemRarityMap()));
     }
 
+    /**
+     * Get the bonus items of this game and their rarity
+     *
+     * @return Read only map of items to rarity
+     * @deprecated Use {@link #getBonusItems()} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public Map<ItemStack, Integer> getBonusRarityMap() {
-        return bonusRarityMap;
+        return getCatalog().getRarityMap(bonusItems);
     }
 
+    /**
+     * Set the bonus items of this game and their rarity
+     * <p>Costs are kept for items already in this game, other items cost 1</p>
+     *
+     * @param bonusRarityMap Map of items to rarity
+     * @deprecated Use {@link #setBonusItems(int[])} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public void setBonusRarityMap(Map<ItemStack, Integer> bonusRarityMap) {
-        this.bonusRarityMap = bonusRarityMap;
+        setBonusItems(register(bonusRarityMap.keySet(), getBonusCostMap(), bonusRarityMap));
     }
 
+    /**
+     * Get the bonus items of this game and their cost
+     *
+     * @return Read only map of items to cost
+     * @deprecated Use {@link #getBonusItems()} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public Map<ItemStack, Integer> getBonusCostMap() {
-        return bonusCostMap;
+        return getCatalog().getCostMap(bonusItems);
     }
 
+    /**
+     * Set the bonus items of this game and their cost
+     * <p>Rarities are kept for items already in this game, other items have a rarity of 1</p>
+     *
+     * @param bonusCostMap Map of items to cost
+     * @deprecated Use {@link #setBonusItems(int[])} with the {@link ItemCatalog} instead
+     */
+    @Deprecated
     public void setBonusCostMap(Map<ItemStack, Integer> bonusCostMap) {
-        this.bonusCostMap = bonusCostMap;
+        setBonusItems(register(bonusCostMap.keySet(), bonusCostMap, getBonusRarityMap()));
+    }
+
+    /**
+     * Get the compiled loot table of this game
+     * <p>Compiled on first use, and again after the items of this game change</p>
+     *
+     * @param bonus Whether to get the bonus loot table
+     * @return Compiled loot table
+     */
+    public LootTable getLootTable(boolean bonus) {
+        if (bonus) {
+            if (bonusLootTable == null) {
+                bonusLootTable = LootTable.compile(getCatalog(), bonusItems);
+            }
+            return bonusLootTable;
+        }
+        if (lootTable == null) {
+            lootTable = LootTable.compile(getCatalog(), items);
+        }
+        return lootTable;
+    }
+
+    /**
+     * Recompile the loot tables of this game
+     * <p>Internally used when items are loaded</p>
+     */
+    public void recompileLootTables() {
+        this.lootTable = LootTable.compile(getCatalog(), items);
+        this.bonusLootTable = LootTable.compile(getCatalog(), bonusItems);
+    }
+
+    /**
+     * Get the buffer of chest contents rolled ahead of time for this game
+     *
+     * @param bonus Whether to get the bonus loot buffer
+     * @return Loot buffer
+     */
+    public LootBuffer getLootBuffer(boolean bonus) {
+        return bonus ? bonusLootBuffer : lootBuffer;
+    }
+
+    void startLootBuffers() {
+        lootBuffer.start();
+        bonusLootBuffer.start();
+    }
+
+    void stopLootBuffers() {
+        lootBuffer.stop();
+        bonusLootBuffer.stop();
     }
 
     /**
      * Reset the bonus items for this game to the plugin's default bonus items list
      */
     public void resetBonusItemsDefault() {
-        this.bonusCostMap = HG.getPlugin().getBonusCostMap();
-        this.bonusRarityMap = HG.getPlugin().getBonusRarityMap();
+        this.bonusItems = HG.getPlugin().getRandomItems().getBonusItems();
+        this.bonusLootTable = null;
+    }
+
+    private ItemCatalog getCatalog() {
+        return plugin.getItemCatalog();
+    }
+
+    private int[] register(Collection<ItemStack> items, Map<ItemStack, Integer> costs, Map<ItemStack, Integer> rarities) {
+        int[] ids = new int[items.size()];
+        int i = 0;
+        for (ItemStack item : items) {
+            ids[i++] = getCatalog().register(item, costs.getOrDefault(item, 1), rarities.getOrDefault(item, 1));
+        }
+        return ids;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        int[] copy = Arrays.copyOf(ids, ids.length + 1);
+        copy[ids.length] = id;
+        return copy;
     }
 
 }
@@ -196,7 +196,7 @@ public class GamePlayerData extends Data {
                 .filter(loc -> !gameArenaData.playerSpawnMap.containsKey(loc))
                 .collect(Collectors.toList());
         final int maxBound = availableLocations.size();
-        int spawn = getRandomIntegerBetweenRange(maxBound - 1);
+        int spawn = game.getMatchRandom().getSpawns().nextInt(maxBound);
         final Location location = availableLocations.get(spawn);
         gameArenaData.playerSpawnMap.put(location, forPlayer);
         return location;
@@ -258,6 +258,10 @@ public class GamePlayerData extends Data {
         Status status = gameArenaData.getStatus();
         if (status != Status.WAITING && status != Status.STOPPED && status != Status.COUNTDOWN && status != Status.READY) {
             Util.scm(player, lang.arena_not_ready);
+            if (status == Status.ROLLBACK) {
+                // Someone is waiting for this arena, restore it first
+                plugin.getManager().getRollbackCoordinator().prioritize(game);
+            }
             if ((status == Status.RUNNING || status == Status.BEGINNING) && Config.spectateEnabled) {
                 Util.scm(player, lang.arena_spectate.replace("<arena>", game.gameArenaData.getName()));
             }
@@ -510,9 +514,4 @@ public class GamePlayerData extends Data {
         return teams.containsKey(name);
     }
 
-    // UTIL
-    private static int getRandomIntegerBetweenRange(double max) {
-        return (int) ((Math.random() * ((max - (double) 0) + 1)) + (double) 0);
-    }
-
 }
@@ -0,0 +1,175 @@
+package tk.shanebee.hg.game;
+
+import tk.shanebee.hg.data.Config;
+import tk.shanebee.hg.util.Util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded buffer of chest contents rolled ahead of time for a {@link Game}
+ * <p>Contents are rolled from the game's {@link LootTable} on a background thread, starting when the game counts down,
+ * and topped up whenever the buffer drops below its watermark. Opening a chest then only takes
+ * an entry and places its items.</p>
+ * <p>Entries are numbered, and entry N is always rolled from its own random seeded by the match seed and N.
+ * When the buffer is empty, the main thread rolls that same entry itself, so the contents of the Nth chest
+ * only depend on the seed, never on how far the background thread got.</p>
+ */
+public class LootBuffer {
+
+    // Most items a single roll can hold, a single chest
+    private static final int MAX_ITEMS = 27;
+
+    private static ExecutorService executor;
+
+    private final Game game;
+    private final boolean bonus;
+    private final AtomicBoolean filling = new AtomicBoolean();
+    private final ArrayBlockingQueue<int[]> ring;
+    // Guards rolling and taking entries, so entries enter the ring in order
+    private final Object lock = new Object();
+    private volatile LootTable table;
+    private long seed;
+    // Number of the next entry to roll, the ring holds the entries after those taken up to this one
+    private long rolled;
+    private volatile boolean running;
+
+    LootBuffer(Game game, boolean bonus) {
+        this.game = game;
+        this.bonus = bonus;
+        this.ring = new ArrayBlockingQueue<>(Math.max(1, Config.lootBufferSize));
+    }
+
+    /**
+     * Start rolling contents for this buffer
+     * <p>Internally used when the game starts its countdown</p>
+     */
+    void start() {
+        if (Config.lootBufferSize <= 0) return;
+        synchronized (lock) {
+            ring.clear();
+            table = game.getGameItemData().getLootTable(bonus);
+            seed = game.getMatchRandom().getLoot().nextLong();
+            rolled = 0;
+            running = true;
+        }
+        topUp();
+    }
+
+    /**
+     * Stop rolling contents and drop what was rolled
+     * <p>Internally used when the game stops</p>
+     */
+    void stop() {
+        synchronized (lock) {
+            running = false;
+            ring.clear();
+        }
+    }
+
+    /**
+     * Take the next chest contents
+     * <p>If none are rolled yet, the next entry is rolled on the calling thread</p>
+     *
+     * @return Catalog ids of the items, or null if this buffer is not running
+     */
+    public int[] poll() {
+        if (!running) return null;
+        int[] loot;
+        synchronized (lock) {
+            LootTable current = game.getGameItemData().getLootTable(bonus);
+            if (current != table) {
+                // Items changed, roll the entries not taken yet again
+                table = current;
+                rolled -= ring.size();
+                ring.clear();
+            }
+            loot = ring.poll();
+            if (loot == null) {
+                loot = roll(table, rolled++);
+            }
+        }
+        if (ring.size() < Config.lootBufferWatermark) {
+            topUp();
+        }
+        return loot;
+    }
+
+    /**
+     * Get the amount of rolled chest contents ready
+     *
+     * @return Amount of contents ready
+     */
+    public int size() {
+        return ring.size();
+    }
+
+    private void topUp() {
+        if (filling.compareAndSet(false, true)) {
+            getExecutor().execute(this::fill);
+        }
+    }
+
+    private void fill() {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    if (!running || ring.remainingCapacity() == 0) break;
+                    ring.offer(roll(table, rolled++));
+                }
+            }
+        } catch (Exception e) {
+            Util.warning("Failed to roll loot for arena '%s': %s", game.getGameArenaData().getName(), e.getMessage());
+        } finally {
+            filling.set(false);
+        }
+    }
+
+    // Roll entry N from its own random, so it is the same whichever thread rolls it
+    private int[] roll(LootTable table, long entry) {
+        int min = bonus ? Config.minbonuscontent : Config.minchestcontent;
+        int max = bonus ? Config.maxbonuscontent : Config.maxchestcontent;
+        int[] out = new int[MAX_ITEMS];
+        int count = table.roll(new SplittableRandom(mix(seed + entry)), min, max, out);
+        return Arrays.copyOf(out, count);
+    }
+
+    // Murmur3 finalizer, so seeds of neighbouring entries give unrelated streams
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "HungerGames-Loot");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Stop the background thread
+     * <p>Internally used when the plugin is unloaded</p>
+     */
+    public static synchronized void shutdown() {
+        if (executor == null) return;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+}
@@ -0,0 +1,286 @@
+package tk.shanebee.hg.game;
+
+import org.bukkit.inventory.Inventory;
+import tk.shanebee.hg.data.ItemCatalog;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Compiled, immutable loot table of a {@link Game Game's} items
+ * <p>Built from item ids in the {@link ItemCatalog}, chests are filled with copies of the catalog's prototypes.</p>
+ * <p>Items are drawn by rarity with an alias table (Vose's method), so each draw is O(1).
+ * When a drawn item is too expensive or already in the chest, an item is drawn instead from the items
+ * still affordable and not in the chest, again by rarity. Items are ordered by cost with their rarities
+ * in a Fenwick tree, so this draw is O(log n), and items already in the chest are taken out of the tree
+ * for the rest of the fill. A chest of k items is filled in O(k log n) without allocating.</p>
+ */
+public class LootTable {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final ItemCatalog catalog;
+    // Catalog ids, sorted by cost, ascending
+    private final int[] items;
+    private final int[] costs;
+    private final int[] rarities;
+    // Fenwick tree of rarities, in the same order as items
+    private final long[] weights;
+    private final double[] probability;
+    private final int[] alias;
+
+    private LootTable(ItemCatalog catalog, int[] items, int[] costs, int[] rarities) {
+        this.catalog = catalog;
+        this.items = items;
+        this.costs = costs;
+        this.rarities = rarities;
+        this.weights = new long[items.length + 1];
+        for (int i = 0; i < items.length; i++) {
+            for (int node = i + 1; node <= items.length; node += node & -node) {
+                weights[node] += rarities[i];
+            }
+        }
+        this.probability = new double[items.length];
+        this.alias = new int[items.length];
+        buildAlias(rarities);
+    }
+
+    /**
+     * Compile a loot table from items in a catalog
+     * <p>Items with a rarity below 1 can never be drawn and are left out</p>
+     *
+     * @param catalog Catalog of the items
+     * @param ids     Ids of the items in the catalog
+     * @return Compiled loot table
+     */
+    public static LootTable compile(ItemCatalog catalog, int[] ids) {
+        // Sort by cost, packed with the id so this is a primitive sort
+        long[] sorted = new long[ids.length];
+        int size = 0;
+        for (int id : ids) {
+            if (catalog.getRarity(id) > 0) {
+                sorted[size++] = ((long) Math.max(0, catalog.getCost(id)) << 32) | id;
+            }
+        }
+        Arrays.sort(sorted, 0, size);
+
+        int[] items = new int[size];
+        int[] costs = new int[size];
+        int[] rarities = new int[size];
+        for (int i = 0; i < size; i++) {
+            int id = (int) sorted[i];
+            items[i] = id;
+            costs[i] = (int) (sorted[i] >>> 32);
+            rarities[i] = catalog.getRarity(id);
+        }
+        return new LootTable(catalog, items, costs, rarities);
+    }
+
+    private void buildAlias(int[] rarities) {
+        int n = rarities.length;
+        if (n == 0) return;
+        long total = 0;
+        for (int rarity : rarities) {
+            total += rarity;
+        }
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) rarities[i] * n / total;
+            if (scaled[i] < 1) small[smallSize++] = i;
+            else large[largeSize++] = i;
+        }
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) small[smallSize++] = more;
+            else large[largeSize++] = more;
+        }
+        // Left overs are only off from 1 by rounding
+        while (largeSize > 0) {
+            int i = large[--largeSize];
+            probability[i] = 1;
+            alias[i] = i;
+        }
+        while (smallSize > 0) {
+            int i = small[--smallSize];
+            probability[i] = 1;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * Clear and fill an inventory with items from this table
+     *
+     * @param inventory Inventory to fill
+     * @param random    Random to draw with
+     * @param minCost   Minimum total cost of the items
+     * @param maxCost   Maximum total cost of the items
+     */
+    public void fill(Inventory inventory, SplittableRandom random, int minCost, int maxCost) {
+        inventory.clear();
+        int size = inventory.getSize();
+        if (items.length == 0 || size == 0) return;
+
+        int[] picked = SCRATCH.get().getPicked(size);
+        int count = roll(random, minCost, maxCost, picked, Math.min(items.length, size));
+        place(inventory, random, picked, count);
+    }
+
+    /**
+     * Clear and fill an inventory with items rolled before
+     *
+     * @param inventory Inventory to fill
+     * @param random    Random to pick slots with
+     * @param loot      Catalog ids of the items, as returned by {@link #roll(SplittableRandom, int, int, int[])}
+     */
+    public void place(Inventory inventory, SplittableRandom random, int[] loot) {
+        inventory.clear();
+        place(inventory, random, loot, Math.min(loot.length, inventory.getSize()));
+    }
+
+    private void place(Inventory inventory, SplittableRandom random, int[] loot, int count) {
+        int size = inventory.getSize();
+        int[] slots = SCRATCH.get().getSlots(size);
+        for (int i = 0; i < count; i++) {
+            // Partial Fisher-Yates, slots stays a permutation between fills
+            int j = i + random.nextInt(size - i);
+            int slot = slots[j];
+            slots[j] = slots[i];
+            slots[i] = slot;
+            inventory.setItem(slot, catalog.create(loot[i]));
+        }
+    }
+
+    /**
+     * Draw distinct items from this table until a random cost goal is met
+     *
+     * @param random  Random to draw with
+     * @param minCost Minimum total cost of the items
+     * @param maxCost Maximum total cost of the items
+     * @param out     Array to put the catalog ids of the drawn items in, its length caps the amount of items
+     * @return Amount of items drawn
+     */
+    public int roll(SplittableRandom random, int minCost, int maxCost, int[] out) {
+        return roll(random, minCost, maxCost, out, out.length);
+    }
+
+    private int roll(SplittableRandom random, int minCost, int maxCost, int[] out, int limit) {
+        int n = items.length;
+        if (n == 0 || limit == 0) return 0;
+        int remaining = minCost + random.nextInt(Math.max(0, maxCost - minCost) + 1);
+        Scratch scratch = SCRATCH.get();
+        long[] used = scratch.getUsed(n);
+        long[] removed = scratch.getRemoved(n);
+        int count = 0;
+        while (remaining > 0 && count < limit) {
+            int i = random.nextInt(n);
+            if (random.nextDouble() >= probability[i]) i = alias[i];
+            if (costs[i] > remaining || (used[i >>> 6] & (1L << i)) != 0) {
+                i = redraw(random, removed, affordable(remaining));
+            }
+            if (i < 0) break;
+            used[i >>> 6] |= 1L << i;
+            for (int node = i + 1; node <= n; node += node & -node) {
+                removed[node] += rarities[i];
+            }
+            remaining -= costs[i];
+            out[count++] = i;
+        }
+        for (int j = 0; j < count; j++) {
+            int i = out[j];
+            used[i >>> 6] = 0;
+            // Only nodes touched by drawn items are set
+            for (int node = i + 1; node <= n; node += node & -node) {
+                removed[node] = 0;
+            }
+            out[j] = items[i];
+        }
+        return count;
+    }
+
+    // Draw by rarity from the items up to the given index not yet drawn, -1 if none are left
+    private int redraw(SplittableRandom random, long[] removed, int last) {
+        if (last < 0) return -1;
+        long total = 0;
+        for (int node = last + 1; node > 0; node -= node & -node) {
+            total += weights[node] - removed[node];
+        }
+        if (total <= 0) return -1;
+        long target = random.nextLong(total);
+        // Descend the tree to the first item whose running total passes the target
+        int n = items.length;
+        int position = 0;
+        for (int step = Integer.highestOneBit(n); step > 0; step >>>= 1) {
+            int node = position + step;
+            if (node <= n) {
+                long weight = weights[node] - removed[node];
+                if (weight <= target) {
+                    position = node;
+                    target -= weight;
+                }
+            }
+        }
+        return position;
+    }
+
+    // Index of the most expensive item costing at most the given amount, -1 if none
+    private int affordable(int cost) {
+        int low = 0;
+        int high = costs.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (costs[mid] <= cost) low = mid + 1;
+            else high = mid - 1;
+        }
+        return high;
+    }
+
+    /**
+     * Get the amount of items in this table
+     *
+     * @return Size of this table
+     */
+    public int size() {
+        return items.length;
+    }
+
+    // Per thread buffers, so fills don't allocate
+    private static class Scratch {
+        private long[] used = new long[1];
+        private long[] removed = new long[1];
+        private int[] picked = new int[27];
+        private int[] slots = new int[0];
+
+        private long[] getUsed(int items) {
+            int words = (items + 63) >>> 6;
+            if (used.length < words) used = new long[words];
+            return used;
+        }
+
+        private long[] getRemoved(int items) {
+            if (removed.length <= items) removed = new long[items + 1];
+            return removed;
+        }
+
+        private int[] getPicked(int max) {
+            if (picked.length < max) picked = new int[max];
+            return picked;
+        }
+
+        private int[] getSlots(int size) {
+            if (slots.length != size) {
+                slots = new int[size];
+                Arrays.setAll(slots, i -> i);
+            }
+            return slots;
+        }
+    }
+
+}
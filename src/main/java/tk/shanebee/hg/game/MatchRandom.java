@@ -0,0 +1,92 @@
+package tk.shanebee.hg.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded random streams of a single match in a {@link Game}
+ * <p>All randomness of a match is split from one seed, with a separate stream for loot, spawns, mobs and chest drops,
+ * so a match can be replayed from its seed and arenas never share a random.
+ * Streams are not thread safe, background work should {@link SplittableRandom#split() split} its own.</p>
+ */
+public class MatchRandom {
+
+    private long seed;
+    private SplittableRandom loot;
+    private SplittableRandom spawns;
+    private SplittableRandom mobs;
+    private SplittableRandom chestDrops;
+
+    MatchRandom() {
+        reset(newSeed());
+    }
+
+    /**
+     * Reset all streams from a seed
+     *
+     * @param seed Seed of the match
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        // Split order is part of the seed's meaning, only add new streams at the end
+        this.loot = root.split();
+        this.spawns = root.split();
+        this.mobs = root.split();
+        this.chestDrops = root.split();
+    }
+
+    /**
+     * Get a new random seed
+     *
+     * @return New seed
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Get the seed of this match
+     *
+     * @return Seed of this match
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the stream used to roll chest loot
+     *
+     * @return Loot stream
+     */
+    public SplittableRandom getLoot() {
+        return loot;
+    }
+
+    /**
+     * Get the stream used to pick player spawns
+     *
+     * @return Spawn stream
+     */
+    public SplittableRandom getSpawns() {
+        return spawns;
+    }
+
+    /**
+     * Get the stream used to spawn mobs
+     *
+     * @return Mob stream
+     */
+    public SplittableRandom getMobs() {
+        return mobs;
+    }
+
+    /**
+     * Get the stream used to place chest drops
+     *
+     * @return Chest drop stream
+     */
+    public SplittableRandom getChestDrops() {
+        return chestDrops;
+    }
+
+}
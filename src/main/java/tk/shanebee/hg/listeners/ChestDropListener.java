@@ -55,25 +55,25 @@ public class ChestDropListener implements Listener {
 
     @EventHandler
     public void onOpenChestDrop(PlayerInteractEvent event) {
+        if (!event.getAction().equals(Action.RIGHT_CLICK_BLOCK)) return;
         Block block = event.getClickedBlock();
-        Game game = plugin.getPlayerManager().getGame(event.getPlayer());
-        if (game != null) {
+        if (block == null) return;
+
+        Game game = plugin.getManager().getGame(block);
+        if (game != null && game == plugin.getPlayerManager().getGame(event.getPlayer())) {
             ChestDropManager manager = game.getChestDropManager();
-            if (event.getAction().equals(Action.RIGHT_CLICK_BLOCK)) {
-                assert block != null;
-                if (block.getType().equals(manager.getChestDropType())) {
-                    ChestDrop matchingDrop = null;
-                    for (ChestDrop cd : manager.getChestDrops()) {
-                        if (cd.getChestBlock().equals(block)) {
-                            matchingDrop = cd;
-                            break;
-                        }
-                    }
-                    if (matchingDrop != null) {
-                        event.getPlayer().openInventory(matchingDrop.getChestInv());
-                        event.setCancelled(true);
+            if (block.getType().equals(manager.getChestDropType())) {
+                ChestDrop matchingDrop = null;
+                for (ChestDrop cd : manager.getChestDrops()) {
+                    if (block.equals(cd.getChestBlock())) {
+                        matchingDrop = cd;
+                        break;
                     }
                 }
+                if (matchingDrop != null) {
+                    event.getPlayer().openInventory(matchingDrop.getChestInv());
+                    event.setCancelled(true);
+                }
             }
         }
 
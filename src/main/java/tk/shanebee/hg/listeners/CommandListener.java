@@ -97,6 +97,7 @@ public class CommandListener implements CommandExecutor, TabCompleter {
 				return null;
 			} else if (args[0].equalsIgnoreCase("delete") ||
 					args[0].equalsIgnoreCase("debug") ||
+					args[0].equalsIgnoreCase("snapshot") ||
 					args[0].equalsIgnoreCase("stop") ||
 					(args[0].equalsIgnoreCase("forcestart")) ||
 					(args[0].equalsIgnoreCase("join")) ||
@@ -150,8 +150,8 @@ public class GameListener implements Listener {
     }
 
 	private void handleItemFrame(Hanging itemFrame, Event event, boolean cancel) {
-	    if (gameManager.isInRegion(itemFrame.getLocation())) {
-	        Game game = gameManager.getGame(itemFrame.getLocation());
+	    Game game = gameManager.getGame(itemFrame.getLocation());
+	    if (game != null) {
 	        switch (game.getGameArenaData().getStatus()) {
                 case RUNNING:
                 case BEGINNING:
@@ -388,8 +388,10 @@ public class GameListener implements Listener {
 			Block block = event.getClickedBlock();
 			assert block != null;
 			PlayerData pd = playerManager.getPlayerData(player);
-			if (gameManager.getGame(player.getLocation()) == null) return;
-			if (gameManager.getGame(player.getLocation()).getGameArenaData().getStatus()  == Status.COUNTDOWN  || gameManager.getGame(player.getLocation()).getGameArenaData().getStatus()  == Status.WAITING) event.setCancelled(true);
+			Game game = gameManager.getGame(player.getLocation());
+			if (game == null) return;
+			Status status = game.getGameArenaData().getStatus();
+			if (status == Status.COUNTDOWN || status == Status.WAITING) event.setCancelled(true);
 			if (block.getType() == Material.CHEST) {
 				assert pd != null;
 				Bukkit.getServer().getPluginManager().callEvent(new ChestOpenEvent(pd.getGame(), block, false));
@@ -509,7 +511,8 @@ public class GameListener implements Listener {
 		if (playerManager.hasSpectatorData(player)) {
 			event.setCancelled(true);
 		}
-		if (gameManager.isInRegion(block.getLocation())) {
+		Game arena = gameManager.getGame(block);
+		if (arena != null) {
 
 			if (Config.breakblocks && playerManager.hasPlayerData(player)) {
                 Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
@@ -531,12 +534,11 @@ public class GameListener implements Listener {
 				}
 			} else {
 				if (player.hasPermission("hg.create")) {
-				    Game game = plugin.getManager().getGame(block.getLocation());
-				    Status status = game.getGameArenaData().getStatus();
+				    Status status = arena.getGameArenaData().getStatus();
 				    switch (status) {
                         case BEGINNING:
                         case RUNNING:
-                            game.getGameBlockData().recordBlockPlace(event.getBlockReplacedState());
+                            arena.getGameBlockData().recordBlockPlace(event.getBlockReplacedState());
                         default:
                             return;
                     }
@@ -554,7 +556,8 @@ public class GameListener implements Listener {
 		if (playerManager.hasSpectatorData(player)) {
 			event.setCancelled(true);
 		}
-		if (gameManager.isInRegion(block.getLocation())) {
+		Game arena = gameManager.getGame(block);
+		if (arena != null) {
 
 			if (Config.breakblocks && playerManager.hasPlayerData(player)) {
                 Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
@@ -576,12 +579,11 @@ public class GameListener implements Listener {
 				}
 			} else {
                 if (!playerManager.hasPlayerData(player) && player.hasPermission("hg.create")) {
-                    Game game = gameManager.getGame(block.getLocation());
-                    Status status = game.getGameArenaData().getStatus();
+                    Status status = arena.getGameArenaData().getStatus();
                     switch (status) {
                         case BEGINNING:
                         case RUNNING:
-							game.getGameBlockData().removeGameChest(block.getLocation());
+							arena.getGameBlockData().removeGameChest(block.getLocation());
                         default:
                             return;
                     }
@@ -612,7 +614,7 @@ public class GameListener implements Listener {
 	    final boolean WATER = event.getBucket() == Material.WATER_BUCKET && (Config.blocks.contains("WATER") || Config.blocks.contains("ALL"));
 	    final boolean LAVA = event.getBucket() == Material.LAVA_BUCKET && (Config.blocks.contains("LAVA") || Config.blocks.contains("ALL"));
 
-        if (plugin.getManager().isInRegion(block.getLocation())) {
+        if (gameManager.getGame(block) != null) {
             if (Config.breakblocks && playerManager.hasPlayerData(player)) {
                 Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
                 GameBlockData gameBlockData = game.getGameBlockData();
@@ -648,8 +650,8 @@ public class GameListener implements Listener {
 	private void onFallingBlockLand(EntityChangeBlockEvent event) {
 		if (event.getEntity().getType() == EntityType.FALLING_BLOCK){
 			Block block = event.getBlock();
-			if (Config.breakblocks && gameManager.isInRegion(event.getEntity().getLocation())) {
-				Game game = gameManager.getGame(event.getEntity().getLocation());
+			Game game = Config.breakblocks ? gameManager.getGame(event.getEntity().getLocation()) : null;
+			if (game != null) {
 				Status status = game.getGameArenaData().getStatus();
 				if (status == Status.RUNNING || status == Status.BEGINNING) {
 					game.getGameBlockData().recordBlockPlace(block.getState());
@@ -660,8 +662,8 @@ public class GameListener implements Listener {
 
 	@EventHandler
 	private void onEntityExplode(EntityExplodeEvent event) {
-		if (gameManager.isInRegion(event.getLocation())) {
-			Game game = gameManager.getGame(event.getLocation());
+		Game game = gameManager.getGame(event.getLocation());
+		if (game != null) {
 			for (Block block : event.blockList()) {
 				game.getGameBlockData().recordBlockBreak(block);
 			}
@@ -671,8 +673,9 @@ public class GameListener implements Listener {
 
 	@EventHandler
 	private void onBlockExplode(BlockExplodeEvent event) {
-		if (gameManager.isInRegion(event.getBlock().getLocation())) {
-			GameBlockData gameBlockData = gameManager.getGame(event.getBlock().getLocation()).getGameBlockData();
+		Game game = gameManager.getGame(event.getBlock());
+		if (game != null) {
+			GameBlockData gameBlockData = game.getGameBlockData();
 			for (Block block : event.blockList()) {
 				gameBlockData.recordBlockBreak(block);
 			}
@@ -684,9 +687,9 @@ public class GameListener implements Listener {
 	private void onLeafDecay(LeavesDecayEvent event) {
 		if (!Config.fixleaves) return;
 		Block block = event.getBlock();
-		if (gameManager.isInRegion(block.getLocation())) {
+		Game game = gameManager.getGame(block);
+		if (game != null) {
 			if (Config.breakblocks) {
-				Game game = gameManager.getGame(block.getLocation());
 				if (game.getGameArenaData().getStatus() == Status.RUNNING) {
 					game.getGameBlockData().recordBlockBreak(block);
 				}
@@ -733,8 +736,8 @@ public class GameListener implements Listener {
         Entity entity = event.getEntity();
         if (entity instanceof ItemFrame || entity instanceof ArmorStand) return;
         if (!(entity instanceof Player)) {
-            if (gameManager.isInRegion(event.getLocation())) {
-                Game game = gameManager.getGame(event.getLocation());
+            Game game = gameManager.getGame(event.getLocation());
+            if (game != null) {
                 if (entity instanceof LivingEntity) {
                     if (game.getGameArenaData().getStatus() != Status.RUNNING) {
                         event.setCancelled(true);
@@ -765,6 +768,12 @@ public class GameListener implements Listener {
 		}
 	}
 
+	@EventHandler
+	private void onJoin(PlayerJoinEvent event) {
+		Player player = event.getPlayer();
+		plugin.getNameCache().put(player.getUniqueId(), player.getName());
+	}
+
 	@EventHandler
 	private void onLogout(PlayerQuitEvent event) {
 		Player player = event.getPlayer();
@@ -808,15 +817,16 @@ public class GameListener implements Listener {
 
 	@EventHandler
 	private void onTeleportIntoArena(PlayerTeleportEvent event) {
-		Player player = event.getPlayer();
+		if (event.getCause() != PlayerTeleportEvent.TeleportCause.ENDER_PEARL) return;
 		Location location = event.getTo();
-		for (Game game : plugin.getGames()) {
-			GameArenaData gameArenaData = game.getGameArenaData();
-			if (gameArenaData.isInRegion(location) && gameArenaData.getStatus() == Status.RUNNING) {
-				if (event.getCause() == PlayerTeleportEvent.TeleportCause.ENDER_PEARL && !game.getGamePlayerData().getPlayers().contains(player.getUniqueId()) && !game.getGamePlayerData().getSpectators().contains(player.getUniqueId())) {
-					event.setCancelled(true);
-				}
-			}
+		if (location == null) return;
+
+		Game game = gameManager.getGame(location);
+		if (game == null || game.getGameArenaData().getStatus() != Status.RUNNING) return;
+
+		UUID uuid = event.getPlayer().getUniqueId();
+		if (!game.getGamePlayerData().getPlayers().contains(uuid) && !game.getGamePlayerData().getSpectators().contains(uuid)) {
+			event.setCancelled(true);
 		}
 	}
 
@@ -134,7 +134,9 @@ public class McmmoListeners implements Listener {
 	private void itemSpawnEvent(McMMOItemSpawnEvent event) {
 		if (!Config.mcmmoUseSkills) {
 			Location loc = event.getLocation();
-			plugin.getGames().stream().filter(game -> game.getGameArenaData().isInRegion(loc)).map(game -> true).forEach(event::setCancelled);
+			if (plugin.getManager().isInRegion(loc)) {
+				event.setCancelled(true);
+			}
 		}
 	}
 
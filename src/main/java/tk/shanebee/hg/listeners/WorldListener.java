@@ -0,0 +1,57 @@
+package tk.shanebee.hg.listeners;
+
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.RollbackLog;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.Game;
+
+/**
+ * Internal event listener
+ * <p>Keeps the cached worlds of arena bounds up to date, and recovers rollback logs and indexes chests of arenas once their world loads</p>
+ */
+public class WorldListener implements Listener {
+
+    private final HG plugin;
+
+    public WorldListener(HG plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler
+    private void onWorldLoad(WorldLoadEvent event) {
+        if (updateBounds(event.getWorld(), event.getWorld())) {
+            plugin.getManager().rebuildArenaIndex();
+            for (Game game : plugin.getGames()) {
+                Bound bound = game.getGameArenaData().getBound();
+                if (bound != null && bound.getWorld() == event.getWorld()) {
+                    RollbackLog.recover(game);
+                    game.getGameBlockData().indexChests();
+                }
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onWorldUnload(WorldUnloadEvent event) {
+        updateBounds(event.getWorld(), null);
+    }
+
+    private boolean updateBounds(World world, World update) {
+        boolean updated = false;
+        for (Game game : plugin.getGames()) {
+            Bound bound = game.getGameArenaData().getBound();
+            if (bound != null && bound.getWorldName().equals(world.getName())) {
+                bound.setWorld(update);
+                updated = true;
+            }
+        }
+        return updated;
+    }
+
+}
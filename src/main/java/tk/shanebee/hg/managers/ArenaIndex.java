@@ -0,0 +1,154 @@
+package tk.shanebee.hg.managers;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.BlockUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spatial index of arenas
+ * <p>Maps each world and chunk to the arenas which overlap that chunk,
+ * so finding the arena at a location only checks the arenas in that chunk.
+ * Each world also keeps a {@link BoundTree} for box overlap queries.</p>
+ */
+public class ArenaIndex {
+
+    private static final Game[] EMPTY = new Game[0];
+
+    // Read off the main thread, so both maps are published together through one volatile write
+    private volatile Index index = new Index(Collections.emptyMap(), Collections.emptyMap());
+
+    /**
+     * Rebuild this index from a collection of games
+     * <p>Should be called whenever an arena is created, deleted or loaded</p>
+     *
+     * @param games Games to index
+     */
+    public void rebuild(Collection<Game> games) {
+        Map<UUID, Map<Long, Game[]>> worlds = new HashMap<>();
+        Map<UUID, List<Game>> byWorld = new HashMap<>();
+        for (Game game : games) {
+            Bound bound = game.getGameArenaData().getBound();
+            // Bounds in worlds which have not been loaded yet are picked up on world load
+            if (bound == null || bound.getWorldId() == null) continue;
+
+            byWorld.computeIfAbsent(bound.getWorldId(), k -> new ArrayList<>()).add(game);
+            Map<Long, Game[]> chunks = worlds.computeIfAbsent(bound.getWorldId(), k -> new HashMap<>());
+            int minX = bound.getMinX() >> 4;
+            int minZ = bound.getMinZ() >> 4;
+            int maxX = bound.getMaxX() >> 4;
+            int maxZ = bound.getMaxZ() >> 4;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    chunks.merge(BlockUtils.getChunkKey(x, z), new Game[]{game}, ArenaIndex::concat);
+                }
+            }
+        }
+        Map<UUID, BoundTree> trees = new HashMap<>();
+        byWorld.forEach((world, list) -> trees.put(world, new BoundTree(list)));
+        // Swap in one go so a lookup never sees a half built index
+        this.index = new Index(worlds, trees);
+    }
+
+    /**
+     * Get the games which overlap a chunk
+     *
+     * @param world  World of the chunk
+     * @param chunkX X coord of the chunk
+     * @param chunkZ Z coord of the chunk
+     * @return Games overlapping this chunk (empty if none)
+     */
+    public Game[] getGames(World world, int chunkX, int chunkZ) {
+        Map<Long, Game[]> chunks = index.worlds.get(world.getUID());
+        if (chunks == null) return EMPTY;
+        Game[] games = chunks.get(BlockUtils.getChunkKey(chunkX, chunkZ));
+        return games != null ? games : EMPTY;
+    }
+
+    /**
+     * Get the game at a location
+     *
+     * @param location Location to check
+     * @return Game at this location, null if none
+     */
+    public Game getGame(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+        return getGame(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get the game at a block
+     *
+     * @param block Block to check
+     * @return Game at this block, null if none
+     */
+    public Game getGame(Block block) {
+        return getGame(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Get the game at a set of block coordinates
+     *
+     * @param world World of the coordinates
+     * @param x     X coord
+     * @param y     Y coord
+     * @param z     Z coord
+     * @return Game at these coordinates, null if none
+     */
+    public Game getGame(World world, int x, int y, int z) {
+        for (Game game : getGames(world, x >> 4, z >> 4)) {
+            if (game.getGameArenaData().getBound().contains(world, x, y, z)) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get all games whose bound overlaps another bound
+     *
+     * @param bound Bound to check
+     * @return Games overlapping this bound (empty if none)
+     */
+    public List<Game> getOverlapping(Bound bound) {
+        List<Game> games = new ArrayList<>();
+        if (bound.getWorldId() == null) return games;
+        BoundTree tree = index.trees.get(bound.getWorldId());
+        if (tree != null) {
+            tree.query(bound.getMinX(), bound.getMinY(), bound.getMinZ(), bound.getMaxX(), bound.getMaxY(), bound.getMaxZ(), games);
+        }
+        return games;
+    }
+
+    private static Game[] concat(Game[] games, Game[] add) {
+        Game[] merged = Arrays.copyOf(games, games.length + add.length);
+        System.arraycopy(add, 0, merged, games.length, add.length);
+        return merged;
+    }
+
+    /** Chunk map and bound trees of one build, never changed once built */
+    private static final class Index {
+
+        private final Map<UUID, Map<Long, Game[]>> worlds;
+        private final Map<UUID, BoundTree> trees;
+
+        private Index(Map<UUID, Map<Long, Game[]>> worlds, Map<UUID, BoundTree> trees) {
+            this.worlds = Collections.unmodifiableMap(worlds);
+            this.trees = Collections.unmodifiableMap(trees);
+        }
+
+    }
+
+}
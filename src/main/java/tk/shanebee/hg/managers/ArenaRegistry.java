@@ -0,0 +1,98 @@
+package tk.shanebee.hg.managers;
+
+import tk.shanebee.hg.game.Game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Name keyed registry of arenas
+ * <p>Names are matched case-insensitively. The game list and name map are kept as immutable
+ * snapshots which are swapped on every change, so they can be read from any thread without locking.
+ * Changes are only made on the main thread.</p>
+ */
+public class ArenaRegistry {
+
+    private volatile Map<String, Game> byName = Collections.emptyMap();
+    private volatile List<Game> snapshot = Collections.emptyList();
+
+    /**
+     * Rebuild this registry from a collection of games
+     *
+     * @param games Games to register
+     */
+    void rebuild(Collection<Game> games) {
+        Map<String, Game> byName = new HashMap<>();
+        for (Game game : games) {
+            byName.putIfAbsent(getKey(game.getGameArenaData().getName()), game);
+        }
+        this.snapshot = Collections.unmodifiableList(new ArrayList<>(games));
+        this.byName = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Add a game to this registry
+     *
+     * @param game Game to add
+     */
+    void register(Game game) {
+        List<Game> games = new ArrayList<>(snapshot);
+        games.add(game);
+        Map<String, Game> byName = new HashMap<>(this.byName);
+        byName.putIfAbsent(getKey(game.getGameArenaData().getName()), game);
+        this.snapshot = Collections.unmodifiableList(games);
+        this.byName = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Remove a game from this registry
+     *
+     * @param game Game to remove
+     */
+    void unregister(Game game) {
+        List<Game> games = new ArrayList<>(snapshot);
+        games.remove(game);
+        Map<String, Game> byName = new HashMap<>(this.byName);
+        String key = getKey(game.getGameArenaData().getName());
+        if (byName.remove(key, game)) {
+            // Another arena may share this name in a different case
+            for (Game other : games) {
+                if (getKey(other.getGameArenaData().getName()).equals(key)) {
+                    byName.put(key, other);
+                    break;
+                }
+            }
+        }
+        this.snapshot = Collections.unmodifiableList(games);
+        this.byName = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Get a game by name
+     *
+     * @param name Name of the game (case-insensitive)
+     * @return The game, null if no game has this name
+     */
+    public Game get(String name) {
+        return byName.get(getKey(name));
+    }
+
+    /**
+     * Get an immutable snapshot of all registered games
+     *
+     * @return Snapshot of all games
+     */
+    public List<Game> getGames() {
+        return snapshot;
+    }
+
+    private static String getKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+}
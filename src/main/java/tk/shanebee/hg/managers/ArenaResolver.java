@@ -0,0 +1,72 @@
+package tk.shanebee.hg.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.BlockUtils;
+
+/**
+ * Resolves which arena a block position is in
+ * <p>Results (including misses) are remembered per block position for the current tick,
+ * so several handlers looking at the same block in one tick only hit the {@link ArenaIndex} once.</p>
+ * <p>The cache is only used on the main thread. Calls from other threads go straight to the index.</p>
+ */
+public class ArenaResolver {
+
+    // Must be a power of 2
+    private static final int SIZE = 64;
+
+    private final ArenaIndex index;
+    // Only touched on the main thread
+    private final long[] keys = new long[SIZE];
+    private final World[] worlds = new World[SIZE];
+    private final Game[] games = new Game[SIZE];
+    private final int[] ticks = new int[SIZE];
+    private final int taskId;
+    private int tick = 1;
+
+    ArenaResolver(HG plugin, ArenaIndex index) {
+        this.index = index;
+        this.taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, () -> tick++, 1, 1);
+    }
+
+    /**
+     * Get the game at a set of block coordinates
+     *
+     * @param world World of the coordinates
+     * @param x     X coord
+     * @param y     Y coord
+     * @param z     Z coord
+     * @return Game at these coordinates, null if none
+     */
+    public Game getGame(World world, int x, int y, int z) {
+        if (!Bukkit.isPrimaryThread()) {
+            return index.getGame(world, x, y, z);
+        }
+        long key = BlockUtils.getBlockKey(x, y, z);
+        int slot = (int) (key ^ (key >>> 29) ^ (key >>> 41)) & (SIZE - 1);
+        if (ticks[slot] == tick && keys[slot] == key && worlds[slot] == world) {
+            return games[slot];
+        }
+        Game game = index.getGame(world, x, y, z);
+        ticks[slot] = tick;
+        keys[slot] = key;
+        worlds[slot] = world;
+        games[slot] = game;
+        return game;
+    }
+
+    /**
+     * Forget all remembered results
+     * <p>Called when the arena index is rebuilt</p>
+     */
+    void invalidate() {
+        tick++;
+    }
+
+    void shutdown() {
+        Bukkit.getScheduler().cancelTask(taskId);
+    }
+
+}
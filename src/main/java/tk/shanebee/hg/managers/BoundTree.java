@@ -0,0 +1,74 @@
+package tk.shanebee.hg.managers;
+
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.Game;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static interval tree of arena bounds in a single world
+ * <p>Bounds are sorted by their min X and laid out as an implicit balanced tree,
+ * where each node stores the greatest max X in its subtree. Overlap queries only
+ * descend into subtrees which can reach the queried X range, Y/Z are checked on each hit.</p>
+ */
+final class BoundTree {
+
+    private final Game[] games;
+    private final Bound[] bounds;
+    private final int[] subMaxX;
+
+    BoundTree(List<Game> games) {
+        games.sort(Comparator.comparingInt(game -> game.getGameArenaData().getBound().getMinX()));
+        int size = games.size();
+        this.games = games.toArray(new Game[0]);
+        this.bounds = new Bound[size];
+        for (int i = 0; i < size; i++) {
+            this.bounds[i] = this.games[i].getGameArenaData().getBound();
+        }
+        this.subMaxX = new int[size];
+        build(0, size);
+    }
+
+    private int build(int lo, int hi) {
+        if (lo >= hi) return Integer.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(bounds[mid].getMaxX(), Math.max(build(lo, mid), build(mid + 1, hi)));
+        subMaxX[mid] = max;
+        return max;
+    }
+
+    /**
+     * Collect all games whose bound overlaps a box
+     *
+     * @param minX Min X of the box
+     * @param minY Min Y of the box
+     * @param minZ Min Z of the box
+     * @param maxX Max X of the box
+     * @param maxY Max Y of the box
+     * @param maxZ Max Z of the box
+     * @param out  List to add overlapping games to
+     */
+    void query(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, List<Game> out) {
+        query(0, games.length, minX, minY, minZ, maxX, maxY, maxZ, out);
+    }
+
+    private void query(int lo, int hi, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, List<Game> out) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            // Nothing in this subtree reaches the box
+            if (subMaxX[mid] < minX) return;
+            query(lo, mid, minX, minY, minZ, maxX, maxY, maxZ, out);
+
+            Bound bound = bounds[mid];
+            // Everything to the right starts after the box
+            if (bound.getMinX() > maxX) return;
+            if (bound.getMaxX() >= minX && bound.getMinZ() <= maxZ && bound.getMaxZ() >= minZ
+                    && bound.getMinY() <= maxY && bound.getMaxY() >= minY) {
+                out.add(games[mid]);
+            }
+            lo = mid + 1;
+        }
+    }
+
+}
@@ -1,20 +1,28 @@
 package tk.shanebee.hg.managers;
 
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.ItemStack;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.Status;
 import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.Language;
+import tk.shanebee.hg.data.RollbackLog;
 import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.ChestIndex;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.game.GameArenaData;
 import tk.shanebee.hg.game.GameItemData;
+import tk.shanebee.hg.game.LootBuffer;
+import tk.shanebee.hg.game.LootTable;
+import tk.shanebee.hg.tasks.ChestRefillTask;
+import tk.shanebee.hg.tasks.Rollback;
+import tk.shanebee.hg.tasks.RollbackCoordinator;
 import tk.shanebee.hg.util.Util;
 
 import java.util.*;
@@ -26,11 +34,34 @@ public class Manager {
 
 	private final HG plugin;
 	private final Language lang;
-	private final Random rg = new Random();
+	private final ArenaIndex arenaIndex = new ArenaIndex();
+	private final ArenaRegistry arenaRegistry = new ArenaRegistry();
+	private final ArenaResolver arenaResolver;
+	private final RollbackCoordinator rollbackCoordinator;
 
 	public Manager(HG plugin) {
 		this.plugin = plugin;
 		this.lang = plugin.getLang();
+		this.arenaResolver = new ArenaResolver(plugin, arenaIndex);
+		this.rollbackCoordinator = new RollbackCoordinator(plugin);
+	}
+
+	/**
+	 * Shut down tasks owned by this manager
+	 * <p>Internally used when the plugin is unloaded</p>
+	 */
+	public void shutdown() {
+		arenaResolver.shutdown();
+		rollbackCoordinator.shutdown();
+		RollbackLog.shutdown();
+		LootBuffer.shutdown();
+	}
+
+	/** Get the coordinator which owns all pending rollbacks
+	 * @return Rollback coordinator
+	 */
+	public RollbackCoordinator getRollbackCoordinator() {
+		return rollbackCoordinator;
 	}
 
     /** Run arena debugger
@@ -132,6 +163,25 @@ public class Manager {
 				Util.scm(sender, "&7Border: &cDisabled");
 			}
 		}
+		Game game = getGame(gameName);
+		if (game != null) {
+			ChestIndex chestIndex = game.getGameBlockData().getChestIndex();
+			Util.scm(sender, "&7Chests Indexed: &b%s &7(bonus: &b%s&7)", chestIndex.size(), chestIndex.getBonusCount());
+			ChestRefillTask refillWave = game.getGameBlockData().getChestRefill();
+			if (refillWave != null) {
+				Util.scm(sender, "&7Last Refill Wave:%s filled: &b%s&7, ticks: &b%s&7, busy: &b%.2fms&7, took: &b%.2fms",
+						refillWave.isStopped() ? "" : " &arunning&7,", refillWave.getFilled(), refillWave.getTicks(),
+						refillWave.getBusyTime(), refillWave.getElapsedTime());
+			}
+		}
+		Util.scm(sender, "&7Rollback Budget: &b%sms/tick &7(current: &b%.2fms&7, shared by &b%s&7 arenas)",
+				Config.rollbackTickBudget, rollbackCoordinator.getBudget(), rollbackCoordinator.getPending());
+		Rollback rollback = game != null ? game.getGameBlockData().getRollback() : null;
+		if (rollback != null) {
+			Util.scm(sender, "&7Rollback:%s restored: &b%s&7, remaining: &b%s&7, ETA: &b%s",
+					rollback.isPriority() ? " &aprioritized&7," : "", rollback.getRestored(), rollback.getRemaining(),
+					rollback.getEta() < 0 ? "unknown" : String.format("%.1fs", rollback.getEta()));
+		}
 	}
 
     /** Check the status of a game while being set up
@@ -162,49 +212,17 @@ public class Manager {
      * @param bonus Whether or not this is a bonus chest
      */
 	public void fillChest(Inventory inv, Game game, boolean bonus) {
-		GameItemData gameItemData = game.getGameItemData();
-		inv.clear();
-
-		Map<ItemStack, Integer> itemRarityMap =  bonus ? gameItemData.getBonusRarityMap() : gameItemData.getItemRarityMap();
-		Map<ItemStack, Integer> itemCostMap =  bonus ? gameItemData.getBonusCostMap() : gameItemData.getItemCostMap();
 		int maxCost = bonus ? Config.maxbonuscontent : Config.maxchestcontent;
 		int minCost = bonus ? Config.minbonuscontent : Config.minchestcontent;
-
-		ArrayList<ItemStack> itemList = new ArrayList<>();
-		for (Map.Entry<ItemStack, Integer> e : itemRarityMap.entrySet()) {
-			for (int i = 0; i < e.getValue(); i++){
-				itemList.add(e.getKey());
-			}
-		}
-		Collections.shuffle(itemList);
-
-		int costGoal = rg.nextInt(minCost, maxCost + 1);
-		int chestCost = 0;
-		ArrayList<ItemStack> chestContents = new ArrayList<>();
-		int numTries = 0;
-		while (chestCost < costGoal && numTries < 10) {
-			int nextItemIndex = rg.nextInt(itemList.size());
-			ItemStack nextItem = itemList.get(nextItemIndex);
-			int nextItemCost = itemCostMap.get(nextItem);
-			if (nextItemCost <= (costGoal - chestCost) && !chestContents.contains(nextItem)) {
-				chestCost += nextItemCost;
-				chestContents.add(nextItem);
-				numTries = 0;
-			}
-			else {
-				numTries++;
-			}
+		GameItemData gameItemData = game.getGameItemData();
+		LootTable lootTable = gameItemData.getLootTable(bonus);
+		int[] loot = gameItemData.getLootBuffer(bonus).poll();
+		SplittableRandom random = game.getMatchRandom().getLoot();
+		if (loot != null) {
+			lootTable.place(inv, random, loot);
+		} else {
+			lootTable.fill(inv, random, minCost, maxCost);
 		}
-		HashSet<Integer> pickedSlots = new HashSet<>();
-		chestContents.forEach((itemStack -> {
-			int slot = rg.nextInt(inv.getSize());
-			while (pickedSlots.contains(slot)) {
-				slot = rg.nextInt(inv.getSize());
-			}
-			pickedSlots.add(slot);
-			inv.setItem(slot, itemStack);
-		}));
-
 	}
 
 	/** Check if a location is in a game's bounds
@@ -212,11 +230,7 @@ public class Manager {
 	 * @return True if the location is within a game's bounds
 	 */
 	public boolean isInRegion(Location location) {
-		for (Game g : plugin.getGames()) {
-			if (g.getGameArenaData().isInRegion(location))
-				return true;
-		}
-		return false;
+		return getGame(location) != null;
 	}
 
 	/** Get a game at a location
@@ -224,11 +238,69 @@ public class Manager {
 	 * @return The game
 	 */
 	public Game getGame(Location location) {
-		for (Game g : plugin.getGames()) {
-			if (g.getGameArenaData().isInRegion(location))
-				return g;
-		}
-		return null;
+		World world = location.getWorld();
+		if (world == null) return null;
+		return arenaResolver.getGame(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
+
+	/** Get a game at a block
+	 * <p>Lookups are remembered for the current tick, so calling this
+	 * several times for the same block is cheap</p>
+	 * @param block The block to check for a game
+	 * @return The game, null if the block is not in a game's bounds
+	 */
+	public Game getGame(Block block) {
+		return arenaResolver.getGame(block.getWorld(), block.getX(), block.getY(), block.getZ());
+	}
+
+	/** Rebuild the arena index used for location lookups
+	 * <p>Called when arena worlds are loaded, use {@link #addGame(Game)}/{@link #removeGame(Game)} to add/remove games</p>
+	 */
+	public void rebuildArenaIndex() {
+		arenaIndex.rebuild(arenaRegistry.getGames());
+		arenaResolver.invalidate();
+	}
+
+	/** Replace all games, and rebuild the arena index
+	 * <p>Internally used after arenas are loaded from arenas.yml, and when all games are stopped</p>
+	 * @param games Games to load
+	 */
+	public void rebuildArenas(Collection<Game> games) {
+		arenaRegistry.rebuild(games);
+		rebuildArenaIndex();
+	}
+
+	/** Add a new game
+	 * @param game Game to add
+	 */
+	public void addGame(Game game) {
+		arenaRegistry.register(game);
+		rebuildArenaIndex();
+		game.getGameBlockData().indexChests();
+	}
+
+	/** Remove a game
+	 * @param game Game to remove
+	 */
+	public void removeGame(Game game) {
+		arenaRegistry.unregister(game);
+		rebuildArenaIndex();
+	}
+
+	/** Get a snapshot of all loaded games
+	 * <p>This list is immutable and safe to iterate while games are added or removed</p>
+	 * @return Snapshot of all games
+	 */
+	public List<Game> getGames() {
+		return arenaRegistry.getGames();
+	}
+
+	/** Get all games whose region overlaps a bound
+	 * @param bound Bound to check
+	 * @return Games overlapping this bound
+	 */
+	public List<Game> getOverlappingGames(Bound bound) {
+		return arenaIndex.getOverlapping(bound);
 	}
 
 	/** Get a game by name
@@ -236,12 +308,7 @@ public class Manager {
 	 * @return The game
 	 */
 	public Game getGame(String name) {
-		for (Game g : plugin.getGames()) {
-			if (g.getGameArenaData().getName().equalsIgnoreCase(name)) {
-				return g;
-			}
-		}
-		return null;
+		return arenaRegistry.get(name);
 	}
 
     /** Get the number of games running
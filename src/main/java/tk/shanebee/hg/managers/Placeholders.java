@@ -1,25 +1,50 @@
 package tk.shanebee.hg.managers;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.data.Leaderboard;
+import tk.shanebee.hg.data.NameCache;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.game.GameArenaData;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Internal placeholder class
+ * <p>Identifiers are parsed once into a resolver and kept by identifier, up to a set amount.
+ * Identifiers that fail to parse are not kept.
+ * Placeholders that are the same for every player are cached for a short time.</p>
+ * <p>PlaceholderAPI may request placeholders from any thread. Leaderboard values are read through the
+ * {@link Leaderboard}, which locks its boards. Arena values are only read on the main thread,
+ * other threads get the last cached value while a refresh is scheduled.</p>
  */
 public class Placeholders extends PlaceholderExpansion {
 
+    // Max amount of parsed identifiers kept, others are parsed on each request
+    private static final int MAX_RESOLVERS = 1024;
+
     private final HG plugin;
     private final Leaderboard leaderboard;
     private final Language lang;
+    private final NameCache nameCache;
+    // Parsed placeholders by identifier
+    private final Map<String, Resolver> resolvers = new ConcurrentHashMap<>();
 
     public Placeholders(HG plugin) {
         this.plugin = plugin;
         this.leaderboard = plugin.getLeaderboard();
         this.lang = plugin.getLang();
+        this.nameCache = plugin.getNameCache();
     }
 
     @Override
@@ -49,31 +74,54 @@ public class Placeholders extends PlaceholderExpansion {
 
     @Override
     public String onRequest(OfflinePlayer player, String identifier) {
+        Resolver resolver = resolvers.get(identifier);
+        if (resolver == null) {
+            resolver = compile(identifier);
+            if (resolver == null) return null;
+            if (resolvers.size() < MAX_RESOLVERS) {
+                Resolver existing = resolvers.putIfAbsent(identifier, resolver);
+                if (existing != null) resolver = existing;
+            }
+        }
+        return resolver.resolve(player);
+    }
+
+    // Parse an identifier, null if it is not a valid placeholder
+    private Resolver compile(String identifier) {
+        try {
+            return parse(identifier);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ignore) {
+            return null;
+        }
+    }
+
+    private static int parsePosition(String position) {
+        int value = Integer.parseInt(position);
+        if (value < 1) throw new IllegalArgumentException("Position must be at least 1");
+        return value;
+    }
+
+    private Resolver parse(String identifier) {
         if (identifier.startsWith("lb_player_")) {
-            int leader = Integer.parseInt(identifier.replace("lb_player_", ""));
-            if (leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).size() >= leader)
-                return leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).get(leader - 1);
-            else
-                return lang.lb_blank_space;
+            int leader = parsePosition(identifier.replace("lb_player_", ""));
+            return cached(() -> getStatPlayers(Leaderboard.Stats.WINS, null, leader));
         }
         if (identifier.startsWith("lb_score_")) {
-            int leader = (Integer.parseInt(identifier.replace("lb_score_", "")));
-            if (leaderboard.getStatsScores(Leaderboard.Stats.WINS).size() >= leader)
-                return leaderboard.getStatsScores(Leaderboard.Stats.WINS).get(leader - 1);
-            else
-                return lang.lb_blank_space;
-
+            int leader = parsePosition(identifier.replace("lb_score_", ""));
+            return cached(() -> getStatScores(Leaderboard.Stats.WINS, null, leader));
         }
         if (identifier.startsWith("lb_combined_")) {
-            int leader = (Integer.parseInt(identifier.replace("lb_combined_", "")));
-            if (leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).size() >= leader)
-                return leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).get(leader - 1) + lang.lb_combined_separator +
-                        leaderboard.getStatsScores(Leaderboard.Stats.WINS).get(leader - 1);
-            else
-                return lang.lb_blank_space + lang.lb_combined_separator + lang.lb_blank_space;
+            int leader = parsePosition(identifier.replace("lb_combined_", ""));
+            return cached(() -> {
+                String name = leaderboard.getPlayer(Leaderboard.Stats.WINS, leader);
+                if (name != null)
+                    return name + lang.lb_combined_separator + leaderboard.getScore(Leaderboard.Stats.WINS, leader);
+                else
+                    return lang.lb_blank_space + lang.lb_combined_separator + lang.lb_blank_space;
+            });
         }
         if (identifier.equalsIgnoreCase("lb_player")) {
-            return String.valueOf(leaderboard.getStat(player.getUniqueId(), Leaderboard.Stats.WINS));
+            return player -> getStatsPlayer(Leaderboard.Stats.WINS, null, player);
         }
         String[] id = identifier.split("_");
         switch (id[0]) {
@@ -83,55 +131,150 @@ public class Placeholders extends PlaceholderExpansion {
                     case "kills":
                     case "deaths":
                     case "games":
-                        if (id[2].equalsIgnoreCase("p"))
-                            return getStatPlayers(identifier);
-                        else if (id[2].equalsIgnoreCase("s"))
-                            return getStatScores(identifier);
-                        else if (id[2].equalsIgnoreCase("c"))
-                            return getStatPlayers(identifier) + " : " + getStatScores(identifier);
-                        else if (id[2].equalsIgnoreCase("player"))
-                            return getStatsPlayer(identifier, player);
+                        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(id[1].toUpperCase());
+                        // Optional window, ie: lb_wins_weekly_p_1
+                        Leaderboard.Window window = Leaderboard.Window.getByName(id[2]);
+                        int type = window != null ? 3 : 2;
+                        switch (id[type].toLowerCase()) {
+                            case "p":
+                                int position = parsePosition(id[type + 1]);
+                                return cached(() -> getStatPlayers(stat, window, position));
+                            case "s":
+                                int score = parsePosition(id[type + 1]);
+                                return cached(() -> getStatScores(stat, window, score));
+                            case "c":
+                                int combined = parsePosition(id[type + 1]);
+                                return cached(() -> getStatPlayers(stat, window, combined) + " : " +
+                                        getStatScores(stat, window, combined));
+                            case "player":
+                                return player -> getStatsPlayer(stat, window, player);
+                            case "rank":
+                                return player -> getStatsRank(stat, window, player);
+                        }
                 }
+                return null;
             case "status":
-                return HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getStatus().getName();
+                return cachedGame(id[1], game -> game.getGameArenaData().getStatus().getName());
             case "cost":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getCost());
+                return cachedGame(id[1], game -> String.valueOf(game.getGameArenaData().getCost()));
             case "playerscurrent":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGamePlayerData().getPlayers().size());
+                return cachedGame(id[1], game -> String.valueOf(game.getGamePlayerData().getPlayers().size()));
             case "playersmax":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getMaxPlayers());
+                return cachedGame(id[1], game -> String.valueOf(game.getGameArenaData().getMaxPlayers()));
             case "playersmin":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getMinPlayers());
+                return cachedGame(id[1], game -> String.valueOf(game.getGameArenaData().getMinPlayers()));
         }
         return null;
     }
 
-    private String getStatsPlayer(String identifier, OfflinePlayer player) {
-        String[] ind = identifier.split("_");
-        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(ind[1].toUpperCase());
-        return String.valueOf(leaderboard.getStat(player.getUniqueId(), stat));
+    private Resolver cachedGame(String arena, Function<Game, String> value) {
+        return new CachedResolver(() -> {
+            Game game = HG.getPlugin().getManager().getGame(arena);
+            return game != null ? value.apply(game) : null;
+        }, true);
+    }
+
+    private Resolver cached(Supplier<String> value) {
+        return new CachedResolver(value, false);
+    }
+
+    // Changes whenever a leaderboard score, a player name or a game status changes
+    private long getCacheVersion() {
+        return ((long) (leaderboard.getVersion() + GameArenaData.getStatusVersion()) << 32) |
+                (nameCache.getVersion() & 0xFFFFFFFFL);
+    }
+
+    private String getStatsPlayer(Leaderboard.Stats stat, Leaderboard.Window window, OfflinePlayer player) {
+        if (player == null) return null;
+        UUID uuid = player.getUniqueId();
+        return String.valueOf(window != null ? leaderboard.getStat(uuid, stat, window) : leaderboard.getStat(uuid, stat));
+    }
+
+    private String getStatsRank(Leaderboard.Stats stat, Leaderboard.Window window, OfflinePlayer player) {
+        if (player == null) return null;
+        UUID uuid = player.getUniqueId();
+        int rank = window != null ? leaderboard.getRank(uuid, stat, window) : leaderboard.getRank(uuid, stat);
+        return rank != 0 ? String.valueOf(rank) : lang.lb_blank_space;
     }
 
-    private String getStatPlayers(String identifier) {
-        String[] ind = identifier.split("_");
-        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(ind[1].toUpperCase());
-        int leader = (Integer.parseInt(ind[3]));
-        if (leaderboard.getStatsPlayers(stat).size() >= leader) {
-            return leaderboard.getStatsPlayers(stat).get(leader - 1);
-        } else {
-            return lang.lb_blank_space;
+    private String getStatPlayers(Leaderboard.Stats stat, Leaderboard.Window window, int leader) {
+        String name = window != null ? leaderboard.getPlayer(stat, window, leader) : leaderboard.getPlayer(stat, leader);
+        return name != null ? name : lang.lb_blank_space;
+    }
+
+    private String getStatScores(Leaderboard.Stats stat, Leaderboard.Window window, int leader) {
+        int score = window != null ? leaderboard.getScore(stat, window, leader) : leaderboard.getScore(stat, leader);
+        return score != -1 ? String.valueOf(score) : lang.lb_blank_space;
+    }
+
+    /**
+     * Placeholder parsed from its identifier
+     */
+    @FunctionalInterface
+    private interface Resolver {
+
+        String resolve(OfflinePlayer player);
+
+    }
+
+    /**
+     * Placeholder that is the same for every player
+     * <p>Its value is kept until it is older than the cache time, or a leaderboard score, player name
+     * or game status changes</p>
+     */
+    private final class CachedResolver implements Resolver {
+
+        private final Supplier<String> supplier;
+        // Whether the value may only be computed on the main thread
+        private final boolean mainThread;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile Result result;
+
+        private CachedResolver(Supplier<String> supplier, boolean mainThread) {
+            this.supplier = supplier;
+            this.mainThread = mainThread;
         }
+
+        @Override
+        public String resolve(OfflinePlayer player) {
+            Result result = this.result;
+            if (result == null || System.currentTimeMillis() >= result.expires || result.version != getCacheVersion()) {
+                if (mainThread && !Bukkit.isPrimaryThread()) {
+                    if (refreshing.compareAndSet(false, true)) {
+                        Bukkit.getScheduler().runTask(plugin, () -> {
+                            refreshing.set(false);
+                            refresh();
+                        });
+                    }
+                    return result != null ? result.value : null;
+                }
+                result = refresh();
+            }
+            return result.value;
+        }
+
+        private Result refresh() {
+            // Read the version first, so a change while computing is caught on the next request
+            long version = getCacheVersion();
+            Result result = new Result(supplier.get(), version, System.currentTimeMillis() + Config.placeholderCacheTime);
+            this.result = result;
+            return result;
+        }
+
     }
 
-    private String getStatScores(String identifier) {
-        String[] ind = identifier.split("_");
-        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(ind[1].toUpperCase());
-        int leader = (Integer.parseInt(ind[3]));
-        if (leaderboard.getStatsScores(stat).size() >= leader) {
-            return leaderboard.getStatsScores(stat).get(leader - 1);
-        } else {
-            return lang.lb_blank_space;
+    private static final class Result {
+
+        private final String value;
+        private final long version;
+        private final long expires;
+
+        private Result(String value, long version, long expires) {
+            this.value = value;
+            this.version = version;
+            this.expires = expires;
         }
+
     }
 
 }
@@ -0,0 +1,141 @@
+package tk.shanebee.hg.tasks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.data.Config;
+import tk.shanebee.hg.game.ChestIndex;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.managers.Manager;
+import tk.shanebee.hg.util.Util;
+
+/**
+ * Wave of chest refills in a game
+ * <p>Walks the game's {@link ChestIndex} and fills every chest within a per tick budget,
+ * so chests are filled before players reach them without filling them all in one tick.
+ * Chests opened before the wave reaches them are filled when opened, as usual.
+ * Chests in unloaded chunks are left to be filled when opened.</p>
+ */
+public class ChestRefillTask implements Runnable {
+
+    private final Game game;
+    private final ChestIndex chestIndex;
+    private final Runnable onDone;
+    private final Manager manager;
+    private final long start = System.nanoTime();
+    private final int id;
+    private int slot;
+    private int filled;
+    private int ticks;
+    private long busy;
+    private long end;
+    private boolean stopped;
+
+    public ChestRefillTask(Game game, Runnable onDone) {
+        this.game = game;
+        this.chestIndex = game.getGameBlockData().getChestIndex();
+        this.onDone = onDone;
+        this.manager = HG.getPlugin().getManager();
+        chestIndex.clearFilled();
+        this.id = Bukkit.getScheduler().scheduleSyncRepeatingTask(HG.getPlugin(), this, 0, 1);
+    }
+
+    @Override
+    public void run() {
+        World world = game.getGameArenaData().getBound().getWorld();
+        if (game.getGameArenaData().getStatus() != Status.RUNNING || world == null) {
+            stop();
+            return;
+        }
+        long now = System.nanoTime();
+        long deadline = now + (long) (Config.chestRefillTickBudget * 1_000_000);
+        ticks++;
+        do {
+            if (slot >= chestIndex.size()) {
+                busy += System.nanoTime() - now;
+                finish();
+                return;
+            }
+            fill(world, slot++);
+        } while (System.nanoTime() < deadline);
+        busy += System.nanoTime() - now;
+    }
+
+    private void fill(World world, int slot) {
+        if (chestIndex.isFilled(slot) || chestIndex.isPlayerPlaced(slot)) return;
+        Block block = chestIndex.getBlock(world, slot);
+        if (!world.isChunkLoaded(block.getX() >> 4, block.getZ() >> 4)) return;
+        BlockState state = block.getState();
+        if (!(state instanceof Container)) return;
+        manager.fillChest(((Container) state).getInventory(), game, chestIndex.isBonus(slot));
+        chestIndex.setFilled(slot);
+        filled++;
+    }
+
+    private void finish() {
+        stop();
+        Util.debug(String.format("Refilled %s chests in arena '%s' over %s ticks (%.2fms busy)",
+                filled, game.getGameArenaData().getName(), ticks, getBusyTime()));
+        onDone.run();
+    }
+
+    /**
+     * Stop this wave
+     */
+    public void stop() {
+        if (stopped) return;
+        stopped = true;
+        end = System.nanoTime();
+        Bukkit.getScheduler().cancelTask(id);
+    }
+
+    /**
+     * Check if this wave is done or stopped
+     *
+     * @return True if stopped
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Get the amount of chests filled by this wave
+     *
+     * @return Chests filled
+     */
+    public int getFilled() {
+        return filled;
+    }
+
+    /**
+     * Get the amount of ticks this wave ran for
+     *
+     * @return Ticks ran
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Get the time spent filling chests
+     *
+     * @return Milliseconds spent filling chests
+     */
+    public double getBusyTime() {
+        return busy / 1_000_000.0;
+    }
+
+    /**
+     * Get the time this wave took, or has taken so far
+     *
+     * @return Milliseconds since this wave started
+     */
+    public double getElapsedTime() {
+        return ((stopped ? end : System.nanoTime()) - start) / 1_000_000.0;
+    }
+
+}
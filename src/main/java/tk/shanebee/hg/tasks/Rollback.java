@@ -1,65 +1,253 @@
 package tk.shanebee.hg.tasks;
 
-import java.util.Iterator;
-
-import org.bukkit.Bukkit;
-import org.bukkit.block.BlockState;
+import io.papermc.lib.PaperLib;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
 import tk.shanebee.hg.HG;
-import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.ItemFrameData;
+import tk.shanebee.hg.game.BlockJournal;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.Status;
 import tk.shanebee.hg.game.GameBlockData;
+import tk.shanebee.hg.util.BlockUtils;
+import tk.shanebee.hg.util.LongIntMap;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Rollback task for resetting blocks after a game finishes
+ * Pending rollback of a single game
+ * <p>Restores are driven by the {@link RollbackCoordinator}, which shares one per tick budget between all rollbacks.</p>
+ * <p>Blocks are restored one chunk at a time. Each chunk is loaded async and held with a plugin ticket
+ * until all of its blocks are restored. Within a chunk blocks are restored in dependency order:
+ * removals first (newest first), then solid blocks, then blocks which depend on others (torches, plants, etc.),
+ * each from the bottom up.</p>
  */
-public class Rollback implements Runnable {
+public class Rollback {
+
+	// Sort key layout: chunk ordinal | phase | y | sequence
+	private static final int SEQ_BITS = 26;
+	private static final int Y_BITS = 12;
+	private static final int PHASE_BITS = 2;
+	private static final int PHASE_SHIFT = SEQ_BITS + Y_BITS;
+	private static final int CHUNK_SHIFT = PHASE_SHIFT + PHASE_BITS;
+	private static final long SEQ_MASK = (1L << SEQ_BITS) - 1;
 
-	private final Iterator<BlockState> session;
-	private final Iterator<ItemFrameData> itemFrameDataIterator;
 	private final Game game;
 	private final GameBlockData gameBlockData;
-	private final int blocks_per_second;
-	private int timerID;
+	private final BlockJournal journal;
+	private final World world;
+	// Journal indexes in restore order, grouped by chunk
+	private final int[] order;
+	// Start of each chunk in order, with one extra entry for the end
+	private final int[] chunkStarts;
+	private final long[] chunkKeys;
+	private int index;
+	private int chunk = -1;
+	private Chunk loaded;
+	private CompletableFuture<Chunk> pending;
+	private CompletableFuture<Chunk> next;
+	private int restored;
+	private double blocksPerTick;
+	private boolean priority;
+	private boolean finished;
 
-	public Rollback(Game game) {
+	Rollback(Game game) {
 		this.game = game;
 		this.gameBlockData = game.getGameBlockData();
-		this.blocks_per_second = Config.blocks_per_second / 10;
+		this.journal = gameBlockData.getJournal();
+		this.world = journal.getWorld();
+
+		int size = journal.size();
+		LongIntMap chunkIndex = new LongIntMap(64);
+		long[] chunks = new long[16];
+		int chunkCount = 0;
+		for (int i = 0; i < size; i++) {
+			long key = journal.getKey(i);
+			long chunkKey = BlockUtils.getChunkKey(BlockUtils.getBlockKeyX(key) >> 4, BlockUtils.getBlockKeyZ(key) >> 4);
+			if (chunkIndex.putIfAbsent(chunkKey, chunkCount) == -1) {
+				if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount << 1);
+				chunks[chunkCount++] = chunkKey;
+			}
+		}
+		// Visit chunks in x/z order so neighbouring chunks follow each other
+		this.chunkKeys = Arrays.copyOf(chunks, chunkCount);
+		Arrays.sort(chunkKeys);
+		LongIntMap ordinals = new LongIntMap(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			ordinals.putIfAbsent(chunkKeys[i], i);
+		}
+
+		long[] sortKeys = new long[size];
+		int[] counts = new int[chunkCount];
+		for (int i = 0; i < size; i++) {
+			long key = journal.getKey(i);
+			long chunkKey = BlockUtils.getChunkKey(BlockUtils.getBlockKeyX(key) >> 4, BlockUtils.getBlockKeyZ(key) >> 4);
+			int ordinal = ordinals.get(chunkKey);
+			counts[ordinal]++;
+			BlockData data = journal.getBlockData(i);
+			long phase;
+			long y;
+			if (data.getMaterial().isAir()) {
+				// Removals go newest first, so attached blocks are removed before what they are attached to
+				phase = 0;
+				y = 0;
+			} else {
+				phase = data.getMaterial().isSolid() ? 1 : 2;
+				y = (BlockUtils.getBlockKeyY(key) + 2048) & 0xFFF;
+			}
+			long seq = size - 1 - i;
+			sortKeys[i] = ((long) ordinal << CHUNK_SHIFT) | (phase << PHASE_SHIFT) | (y << SEQ_BITS) | seq;
+		}
+		Arrays.sort(sortKeys);
+		this.order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = (int) (size - 1 - (sortKeys[i] & SEQ_MASK));
+		}
+		this.chunkStarts = new int[chunkCount + 1];
+		for (int i = 0; i < chunkCount; i++) {
+			chunkStarts[i + 1] = chunkStarts[i] + counts[i];
+		}
 		game.getGameArenaData().setStatus(Status.ROLLBACK);
-		this.session = gameBlockData.getBlocks().iterator();
-		this.itemFrameDataIterator = gameBlockData.getItemFrameData().iterator();
-		timerID = Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(HG.getPlugin(), this, 2);
+		gameBlockData.setRollback(this);
 	}
 
-	public void run() {
+	/**
+	 * Restore blocks until a deadline passes
+	 * <p>At least one block is restored if its chunk is loaded, so a rollback can't stall.</p>
+	 *
+	 * @param deadline {@link System#nanoTime()} to stop at
+	 */
+	void restore(long deadline) {
 		int i = 0;
-		// Rollback blocks
-		while (i < blocks_per_second && session.hasNext()) {
-		    BlockState state = session.next();
-		    if (state != null) {
-                state.update(true);
-            }
+		while (index < order.length) {
+			if (!isChunkReady()) break;
+			journal.restore(order[index++]);
 			i++;
+			if (index == chunkStarts[chunk + 1]) {
+				releaseChunk();
+			}
+			if (System.nanoTime() >= deadline) break;
 		}
-		if (session.hasNext()) {
-			timerID = Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(HG.getPlugin(), this, 2);
-			return;
+		restored += i;
+		blocksPerTick = blocksPerTick == 0 ? i : blocksPerTick * 0.8 + i * 0.2;
+	}
+
+	private boolean isChunkReady() {
+		if (loaded != null) return true;
+		if (pending == null) {
+			chunk++;
+			pending = next != null ? next : loadChunk(chunk);
+			next = chunk + 1 < chunkKeys.length ? loadChunk(chunk + 1) : null;
+		}
+		if (!pending.isDone()) return false;
+
+		Chunk loaded;
+		try {
+			loaded = pending.join();
+		} catch (Exception ignore) {
+			long key = chunkKeys[chunk];
+			loaded = world.getChunkAt((int) (key >> 32), (int) key);
+		}
+		loaded.addPluginChunkTicket(HG.getPlugin());
+		this.loaded = loaded;
+		return true;
+	}
+
+	private CompletableFuture<Chunk> loadChunk(int chunk) {
+		long key = chunkKeys[chunk];
+		return PaperLib.getChunkAtAsync(world, (int) (key >> 32), (int) key);
+	}
+
+	private void releaseChunk() {
+		if (loaded != null) {
+			loaded.removePluginChunkTicket(HG.getPlugin());
+			loaded = null;
 		}
+		pending = null;
+	}
+
+	/**
+	 * Finish this rollback
+	 * <p>Resets item frames and marks the game as ready</p>
+	 */
+	public void finish() {
+		if (finished) return;
+		finished = true;
+		releaseChunk();
+		for (ItemFrameData data : gameBlockData.getItemFrameData()) {
+			if (data != null) {
+				data.resetItem();
+			}
+		}
+		gameBlockData.setRollback(null);
+		gameBlockData.resetBlocks();
+		gameBlockData.resetItemFrames();
+		game.getGameArenaData().setStatus(Status.READY);
+	}
+
+	/**
+	 * Check if all blocks of this rollback were restored
+	 *
+	 * @return True if done
+	 */
+	public boolean isDone() {
+		return finished || index >= order.length;
+	}
+
+	boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Get the game of this rollback
+	 *
+	 * @return Game being rolled back
+	 */
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * Check if this rollback was moved to the front of the queue
+	 *
+	 * @return True if prioritized
+	 */
+	public boolean isPriority() {
+		return priority;
+	}
+
+	void setPriority(boolean priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * Get the amount of blocks restored so far
+	 *
+	 * @return Blocks restored
+	 */
+	public int getRestored() {
+		return restored;
+	}
+
+	/**
+	 * Get the amount of blocks left to restore
+	 *
+	 * @return Blocks remaining
+	 */
+	public int getRemaining() {
+		return order.length - index;
+	}
 
-		// Rollback item frames
-		while (itemFrameDataIterator.hasNext()) {
-		    ItemFrameData data = itemFrameDataIterator.next();
-		    if (data != null) {
-		        data.resetItem();
-            }
-        }
-
-        Bukkit.getServer().getScheduler().cancelTask(timerID);
-        gameBlockData.resetBlocks();
-        gameBlockData.resetItemFrames();
-        game.getGameArenaData().setStatus(Status.READY);
+	/**
+	 * Get the estimated time until this rollback finishes
+	 *
+	 * @return Estimated seconds remaining, -1 if not yet known
+	 */
+	public double getEta() {
+		if (blocksPerTick <= 0) return -1;
+		return getRemaining() / blocksPerTick / 20;
 	}
 
 }
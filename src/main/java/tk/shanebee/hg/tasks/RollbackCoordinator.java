@@ -0,0 +1,147 @@
+package tk.shanebee.hg.tasks;
+
+import org.bukkit.Bukkit;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Config;
+import tk.shanebee.hg.game.Game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Owns every pending {@link Rollback}
+ * <p>Runs every tick while rollbacks are pending and shares one time budget between them round-robin.
+ * Prioritized rollbacks are served first with the whole budget.
+ * The budget is lowered while the server is lagging and raised again once it recovers.</p>
+ */
+public class RollbackCoordinator implements Runnable {
+
+    // A tick taking longer than this means the server is behind
+    private static final long OVERRUN_NANOS = 55_000_000L;
+    private static final double MIN_BUDGET_FACTOR = 0.1;
+    private static final double RAMP_UP_FACTOR = 0.1;
+
+    private final HG plugin;
+    private final Deque<Rollback> queue = new ArrayDeque<>();
+    private long budgetNanos = -1;
+    private long lastRun;
+    private int taskId = -1;
+
+    public RollbackCoordinator(HG plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start rolling back a game
+     *
+     * @param game Game to roll back
+     */
+    public void rollback(Game game) {
+        queue.addLast(new Rollback(game));
+        if (taskId == -1) {
+            lastRun = 0;
+            taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this, 1, 1);
+        }
+    }
+
+    /**
+     * Move the rollback of a game to the front of the queue
+     * <p>Used when players are waiting to join the game</p>
+     *
+     * @param game Game to prioritize
+     */
+    public void prioritize(Game game) {
+        Rollback rollback = game.getGameBlockData().getRollback();
+        if (rollback == null || rollback.isPriority()) return;
+        rollback.setPriority(true);
+        queue.remove(rollback);
+        queue.addFirst(rollback);
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        adjustBudget(start);
+        long deadline = start + budgetNanos;
+
+        List<Rollback> shared = new ArrayList<>(queue.size());
+        for (Rollback rollback : queue) {
+            if (rollback.isFinished()) continue;
+            if (rollback.isPriority()) {
+                rollback.restore(deadline);
+            } else {
+                shared.add(rollback);
+            }
+        }
+        // Split what is left of the budget, time unused by one rollback carries over to the next
+        for (int i = 0; i < shared.size(); i++) {
+            long now = System.nanoTime();
+            long slice = Math.max(0, deadline - now) / (shared.size() - i);
+            shared.get(i).restore(now + slice);
+        }
+
+        queue.removeIf(rollback -> {
+            if (!rollback.isDone()) return false;
+            rollback.finish();
+            return true;
+        });
+        if (queue.isEmpty()) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        } else if (!shared.isEmpty() && !shared.get(0).isDone()) {
+            // Round-robin, so the same arena doesn't always get the first slice
+            queue.remove(shared.get(0));
+            queue.addLast(shared.get(0));
+        }
+    }
+
+    private void adjustBudget(long now) {
+        long maxBudgetNanos = Math.max(1L, (long) (Config.rollbackTickBudget * 1_000_000));
+        if (budgetNanos < 0 || lastRun == 0) {
+            budgetNanos = maxBudgetNanos;
+        } else if (now - lastRun > OVERRUN_NANOS) {
+            // Previous tick overran, back off
+            budgetNanos = Math.max((long) (maxBudgetNanos * MIN_BUDGET_FACTOR), budgetNanos / 2);
+        } else {
+            // Headroom, ramp back up to the configured budget
+            budgetNanos = Math.min(maxBudgetNanos, budgetNanos + (long) (maxBudgetNanos * RAMP_UP_FACTOR));
+        }
+        lastRun = now;
+    }
+
+    /**
+     * Get the current per tick budget shared by all rollbacks
+     *
+     * @return Budget in milliseconds
+     */
+    public double getBudget() {
+        return (budgetNanos < 0 ? Config.rollbackTickBudget * 1_000_000 : budgetNanos) / 1_000_000.0;
+    }
+
+    /**
+     * Get the amount of pending rollbacks
+     *
+     * @return Pending rollbacks
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * Finish all pending rollbacks at once and stop this coordinator
+     * <p>Internally used when the plugin is unloaded</p>
+     */
+    public void shutdown() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        for (Rollback rollback : new ArrayList<>(queue)) {
+            rollback.getGame().getGameBlockData().forceRollback();
+        }
+        queue.clear();
+    }
+
+}
@@ -10,20 +10,21 @@ import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.managers.MobManager;
 
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.UUID;
 
 public class SpawnerTask implements Runnable {
 
     private final Game game;
     private final int id;
-    private final Random random = new Random();
+    private final SplittableRandom random;
     private final World world;
     private final List<MobEntry> dayMobs;
     private final List<MobEntry> nightMobs;
 
     public SpawnerTask(Game game, int i) {
         this.game = game;
+        this.random = game.getMatchRandom().getMobs();
         this.id = Bukkit.getScheduler().scheduleSyncRepeatingTask(game.getGameArenaData().getPlugin(), this, i, i);
         this.world = game.getGameArenaData().getBound().getWorld();
         MobManager mobManager = game.getMobManager();
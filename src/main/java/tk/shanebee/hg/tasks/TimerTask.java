@@ -55,14 +55,12 @@ public class TimerTask implements Runnable {
 		}
 
 		if (gameArenaData.getChestRefillTime() > 0 && remainingtime == gameArenaData.getChestRefillTime()) {
-			game.getGameBlockData().refillChests();
-			game.getGamePlayerData().msgAll(lang.game_chest_refill);
+			game.getGameBlockData().refillChests(() -> game.getGamePlayerData().msgAll(lang.game_chest_refill));
 		}
 
 		int refillRepeat = gameArenaData.getChestRefillRepeat();
 		if (refillRepeat > 0 && timer % refillRepeat == 0) {
-			game.getGameBlockData().refillChests();
-			game.getGamePlayerData().msgAll(lang.game_chest_refill);
+			game.getGameBlockData().refillChests(() -> game.getGamePlayerData().msgAll(lang.game_chest_refill));
 		}
 
 		if (remainingtime == teleportTimer && Config.teleportEnd) {
@@ -39,7 +39,16 @@ public class BlockUtils {
      * @return True if block is a bonus chest
      */
     public static boolean isBonusBlock(Block block) {
-        Material mat = block.getType();
+        return isBonusBlock(block.getType());
+    }
+
+    /**
+     * Check if a material is a bonus block
+     *
+     * @param mat Material to check
+     * @return True if material is a bonus chest
+     */
+    public static boolean isBonusBlock(Material mat) {
         // No mater what is put in the config, a chest will never be a bonus block
         return mat != Material.CHEST && BONUS_BLOCK_MATERIALS.contains(mat);
     }
@@ -54,6 +63,60 @@ public class BlockUtils {
         return BREAKABLE_BLOCK_ALL || BREAKABLE_BLOCK_MATERIALS.contains(block.getType());
     }
 
+    /**
+     * Pack the coords of a chunk into a single long
+     *
+     * @param chunkX X coord of the chunk
+     * @param chunkZ Z coord of the chunk
+     * @return Packed chunk key
+     */
+    public static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Pack the coords of a block into a single long
+     * <p>X and Z are stored in 26 bits each and Y in 12 bits</p>
+     *
+     * @param x X coord of the block
+     * @param y Y coord of the block
+     * @param z Z coord of the block
+     * @return Packed block key
+     */
+    public static long getBlockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Get the X coord from a packed block key
+     *
+     * @param key Key from {@link #getBlockKey(int, int, int)}
+     * @return X coord of the block
+     */
+    public static int getBlockKeyX(long key) {
+        return (int) (key >> 38);
+    }
+
+    /**
+     * Get the Y coord from a packed block key
+     *
+     * @param key Key from {@link #getBlockKey(int, int, int)}
+     * @return Y coord of the block
+     */
+    public static int getBlockKeyY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    /**
+     * Get the Z coord from a packed block key
+     *
+     * @param key Key from {@link #getBlockKey(int, int, int)}
+     * @return Z coord of the block
+     */
+    public static int getBlockKeyZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
     private static ImmutableSet.Builder<Material> setup(List<String> materialStrings) {
         ImmutableSet.Builder<Material> materialBuilder = ImmutableSet.builder();
 
@@ -0,0 +1,121 @@
+package tk.shanebee.hg.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive longs to non-negative primitive ints
+ * <p>Used for packed block/chunk keys to avoid boxing a {@link Long} per entry.</p>
+ */
+public final class LongIntMap {
+
+    private static final int MISSING = -1;
+
+    private long[] keys;
+    // Stored as value + 1, so 0 marks an empty slot and every key (including 0) is usable
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected Expected number of entries
+     */
+    public LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Get the value mapped to a key
+     *
+     * @param key Key to get
+     * @return Value of this key, -1 if not mapped
+     */
+    public int get(long key) {
+        int slot = mix(key) & mask;
+        int value;
+        while ((value = values[slot]) != 0) {
+            if (keys[slot] == key) return value - 1;
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Check if a key is mapped
+     *
+     * @param key Key to check
+     * @return True if mapped
+     */
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Map a key to a value unless it is already mapped
+     *
+     * @param key   Key to map
+     * @param value Value to map (must not be negative)
+     * @return Existing value of this key, -1 if the new value was added
+     */
+    public int putIfAbsent(long key, int value) {
+        if (value < 0) throw new IllegalArgumentException("Value can not be negative");
+        int slot = mix(key) & mask;
+        int existing;
+        while ((existing = values[slot]) != 0) {
+            if (keys[slot] == key) return existing - 1;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value + 1;
+        if (++size * 4 > keys.length * 3) {
+            grow();
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return Number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all mappings
+     */
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int capacity = oldKeys.length << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == 0) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (values[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -0,0 +1,281 @@
+package tk.shanebee.hg.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Order statistic tree of player scores
+ * <p>A treap ordered by score (highest first), then by UUID, where every node knows the size of its subtree.
+ * Setting a score, finding a player's rank and finding the player at a position are all O(log n).
+ * Nodes live in primitive arrays, players are found through a {@link UUIDIntMap}.</p>
+ */
+public final class RankTree {
+
+    private final UUIDIntMap nodes = new UUIDIntMap(64);
+    private final SplittableRandom random = new SplittableRandom();
+    // Node 0 is the empty tree
+    private long[] most = new long[64];
+    private long[] least = new long[64];
+    private int[] scores = new int[64];
+    private int[] priorities = new int[64];
+    private int[] left = new int[64];
+    private int[] right = new int[64];
+    private int[] counts = new int[64];
+    private int size;
+    private int root;
+    // Results of split
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * Get the score of a player
+     *
+     * @param uuid UUID of the player
+     * @return Score of the player, 0 if not in this tree
+     */
+    public int get(UUID uuid) {
+        int node = nodes.get(uuid);
+        return node == -1 ? 0 : scores[node];
+    }
+
+    /**
+     * Check if a player is in this tree
+     *
+     * @param uuid UUID of the player
+     * @return True if in this tree
+     */
+    public boolean contains(UUID uuid) {
+        return nodes.get(uuid) != -1;
+    }
+
+    /**
+     * Add to the score of a player
+     *
+     * @param uuid   UUID of the player
+     * @param amount Amount to add
+     * @return New score of the player
+     */
+    public int add(UUID uuid, int amount) {
+        int score = get(uuid) + amount;
+        set(uuid, score);
+        return score;
+    }
+
+    /**
+     * Set the score of a player
+     *
+     * @param uuid  UUID of the player
+     * @param score Score of the player
+     */
+    public void set(UUID uuid, int score) {
+        int node = nodes.get(uuid);
+        if (node == -1) {
+            node = ++size;
+            if (node == scores.length) grow();
+            most[node] = uuid.getMostSignificantBits();
+            least[node] = uuid.getLeastSignificantBits();
+            priorities[node] = random.nextInt();
+            nodes.put(uuid, node);
+        } else {
+            if (scores[node] == score) return;
+            root = remove(root, node);
+        }
+        scores[node] = score;
+        left[node] = 0;
+        right[node] = 0;
+        counts[node] = 1;
+        root = insert(root, node);
+    }
+
+    /**
+     * Remove a player from this tree
+     *
+     * @param uuid UUID of the player
+     */
+    public void remove(UUID uuid) {
+        int node = nodes.remove(uuid);
+        if (node == -1) return;
+        root = remove(root, node);
+        int last = size--;
+        if (node == last) return;
+
+        // Move the last node into the free one, so nodes stay packed
+        int parent = 0;
+        int t = root;
+        while (t != last) {
+            parent = t;
+            t = before(last, t) ? left[t] : right[t];
+        }
+        most[node] = most[last];
+        least[node] = least[last];
+        scores[node] = scores[last];
+        priorities[node] = priorities[last];
+        left[node] = left[last];
+        right[node] = right[last];
+        counts[node] = counts[last];
+        if (parent == 0) {
+            root = node;
+        } else if (left[parent] == last) {
+            left[parent] = node;
+        } else {
+            right[parent] = node;
+        }
+        nodes.put(new UUID(most[node], least[node]), node);
+    }
+
+    /**
+     * Get the rank of a player
+     * <p>Players with the same score share a rank</p>
+     *
+     * @param uuid UUID of the player
+     * @return Rank of the player starting at 1, 0 if not in this tree
+     */
+    public int getRank(UUID uuid) {
+        int node = nodes.get(uuid);
+        if (node == -1) return 0;
+        int score = scores[node];
+        int above = 0;
+        int t = root;
+        while (t != 0) {
+            if (scores[t] > score) {
+                above += counts[left[t]] + 1;
+                t = right[t];
+            } else {
+                t = left[t];
+            }
+        }
+        return above + 1;
+    }
+
+    /**
+     * Get the player at a position
+     *
+     * @param position Position starting at 0 for the highest score
+     * @return UUID of the player at this position
+     */
+    public UUID getUUID(int position) {
+        int node = select(position);
+        return new UUID(most[node], least[node]);
+    }
+
+    /**
+     * Get the score at a position
+     *
+     * @param position Position starting at 0 for the highest score
+     * @return Score at this position
+     */
+    public int getScore(int position) {
+        return scores[select(position)];
+    }
+
+    /**
+     * Get the amount of players in this tree
+     *
+     * @return Size of this tree
+     */
+    public int size() {
+        return size;
+    }
+
+    private int select(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for size " + size);
+        }
+        int t = root;
+        while (true) {
+            int leftCount = counts[left[t]];
+            if (position < leftCount) {
+                t = left[t];
+            } else if (position == leftCount) {
+                return t;
+            } else {
+                position -= leftCount + 1;
+                t = right[t];
+            }
+        }
+    }
+
+    // Whether node a comes before node b
+    private boolean before(int a, int b) {
+        if (scores[a] != scores[b]) return scores[a] > scores[b];
+        if (most[a] != most[b]) return most[a] < most[b];
+        return least[a] < least[b];
+    }
+
+    private void update(int t) {
+        counts[t] = counts[left[t]] + counts[right[t]] + 1;
+    }
+
+    private int insert(int t, int node) {
+        if (t == 0) return node;
+        if (priorities[node] > priorities[t]) {
+            split(t, node);
+            left[node] = splitLeft;
+            right[node] = splitRight;
+            update(node);
+            return node;
+        }
+        if (before(node, t)) {
+            left[t] = insert(left[t], node);
+        } else {
+            right[t] = insert(right[t], node);
+        }
+        update(t);
+        return t;
+    }
+
+    // Split a tree into the nodes before and after a node
+    private void split(int t, int node) {
+        if (t == 0) {
+            splitLeft = 0;
+            splitRight = 0;
+        } else if (before(t, node)) {
+            split(right[t], node);
+            right[t] = splitLeft;
+            update(t);
+            splitLeft = t;
+        } else {
+            split(left[t], node);
+            left[t] = splitRight;
+            update(t);
+            splitRight = t;
+        }
+    }
+
+    private int remove(int t, int node) {
+        if (t == node) return merge(left[t], right[t]);
+        if (before(node, t)) {
+            left[t] = remove(left[t], node);
+        } else {
+            right[t] = remove(right[t], node);
+        }
+        update(t);
+        return t;
+    }
+
+    private int merge(int a, int b) {
+        if (a == 0) return b;
+        if (b == 0) return a;
+        if (priorities[a] > priorities[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private void grow() {
+        int capacity = scores.length << 1;
+        most = Arrays.copyOf(most, capacity);
+        least = Arrays.copyOf(least, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+    }
+
+}
@@ -0,0 +1,202 @@
+package tk.shanebee.hg.util;
+
+import io.papermc.lib.PaperLib;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.game.Bound;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Async scanner for the blocks in a {@link Bound}
+ * <p>Chunks overlapping the bound are loaded async and snapshot on the main thread, a batch at a time.
+ * Each batch is then scanned in parallel on the common fork-join pool, and the matches are passed back on the main thread.</p>
+ */
+public class RegionScanner {
+
+    // Amount of chunks held in memory at once
+    private static final int BATCH_SIZE = 16;
+
+    private static final Executor ASYNC = r -> Bukkit.getScheduler().runTaskAsynchronously(HG.getPlugin(), r);
+    private static final Executor MAIN = r -> {
+        if (Bukkit.isPrimaryThread()) r.run();
+        else Bukkit.getScheduler().runTask(HG.getPlugin(), r);
+    };
+
+    /**
+     * Find all blocks of a set of materials in a bound
+     *
+     * @param bound     Bound to scan
+     * @param materials Materials to find
+     * @param callback  Called on the main thread with the matches of each batch of chunks
+     * @return Future completed on the main thread with the total amount of matches
+     */
+    public static CompletableFuture<Integer> scan(Bound bound, Set<Material> materials, Consumer<List<Location>> callback) {
+        return scan(bound, (Predicate<Material>) materials::contains, callback);
+    }
+
+    /**
+     * Find all blocks in a tag in a bound
+     *
+     * @param bound    Bound to scan
+     * @param tag      Tag of the blocks to find
+     * @param callback Called on the main thread with the matches of each batch of chunks
+     * @return Future completed on the main thread with the total amount of matches
+     */
+    public static CompletableFuture<Integer> scan(Bound bound, Tag<Material> tag, Consumer<List<Location>> callback) {
+        return scan(bound, (Predicate<Material>) tag::isTagged, callback);
+    }
+
+    /**
+     * Find all blocks matching a predicate in a bound
+     * <p>The predicate is tested async, so it should not touch the world</p>
+     *
+     * @param bound     Bound to scan
+     * @param predicate Predicate of the blocks to find
+     * @param callback  Called on the main thread with the matches of each batch of chunks
+     * @return Future completed on the main thread with the total amount of matches
+     */
+    public static CompletableFuture<Integer> scan(Bound bound, Predicate<Material> predicate, Consumer<List<Location>> callback) {
+        return scan(bound, predicate, (locations, types) -> callback.accept(locations));
+    }
+
+    /**
+     * Find all blocks matching a predicate in a bound, along with their types
+     * <p>The predicate is tested async, so it should not touch the world</p>
+     *
+     * @param bound     Bound to scan
+     * @param predicate Predicate of the blocks to find
+     * @param callback  Called on the main thread with the matches of each batch of chunks, and the type of each match
+     * @return Future completed on the main thread with the total amount of matches
+     */
+    public static CompletableFuture<Integer> scan(Bound bound, Predicate<Material> predicate, BiConsumer<List<Location>, List<Material>> callback) {
+        World world = bound.getWorld();
+        if (world == null) {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("World '" + bound.getWorldName() + "' is not loaded"));
+            return future;
+        }
+        int[] count = new int[1];
+        return forEachBatch(bound, snapshots -> {
+            List<Found> found = ForkJoinPool.commonPool().submit(() -> snapshots.parallelStream()
+                    .map(snapshot -> scanChunk(bound, snapshot, predicate))
+                    .collect(Collectors.toList())).join();
+            List<Location> locations = new ArrayList<>();
+            List<Material> types = new ArrayList<>();
+            for (Found chunk : found) {
+                for (int i = 0; i < chunk.size; i++) {
+                    long key = chunk.keys[i];
+                    locations.add(new Location(world, BlockUtils.getBlockKeyX(key), BlockUtils.getBlockKeyY(key), BlockUtils.getBlockKeyZ(key)));
+                    types.add(chunk.types[i]);
+                }
+            }
+            if (locations.isEmpty()) return;
+            count[0] += locations.size();
+            CompletableFuture.runAsync(() -> callback.accept(locations, types), MAIN).join();
+        }).handleAsync((v, ex) -> {
+            if (ex != null) throw new CompletionException(ex);
+            return count[0];
+        }, MAIN);
+    }
+
+    // Packed positions and types of all blocks in a chunk matching a predicate
+    private static Found scanChunk(Bound bound, ChunkSnapshot snapshot, Predicate<Material> predicate) {
+        int cx = snapshot.getX() << 4;
+        int cz = snapshot.getZ() << 4;
+        int minX = Math.max(bound.getMinX(), cx) - cx;
+        int maxX = Math.min(bound.getMaxX(), cx + 15) - cx;
+        int minZ = Math.max(bound.getMinZ(), cz) - cz;
+        int maxZ = Math.min(bound.getMaxZ(), cz + 15) - cz;
+        Found found = new Found();
+        for (int y = bound.getMinY(); y <= bound.getMaxY(); y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    Material type = snapshot.getBlockType(x, y, z);
+                    if (predicate.test(type)) {
+                        found.add(BlockUtils.getBlockKey(cx + x, y, cz + z), type);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static class Found {
+        private long[] keys = new long[16];
+        private Material[] types = new Material[16];
+        private int size;
+
+        private void add(long key, Material type) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                types = Arrays.copyOf(types, size << 1);
+            }
+            keys[size] = key;
+            types[size++] = type;
+        }
+    }
+
+    /**
+     * Snapshot every chunk overlapping a bound, a batch at a time
+     * <p>Chunks are loaded async and snapshot on the main thread, each batch is then passed to the consumer async.
+     * The next batch is only taken once the consumer is done, so only one batch is held in memory.</p>
+     *
+     * @param bound    Bound to snapshot
+     * @param consumer Consumer of each batch of snapshots, called async
+     * @return Future completed once all batches were consumed
+     */
+    public static CompletableFuture<Void> forEachBatch(Bound bound, Consumer<List<ChunkSnapshot>> consumer) {
+        World world = bound.getWorld();
+        int minX = bound.getMinX() >> 4;
+        int minZ = bound.getMinZ() >> 4;
+        int maxX = bound.getMaxX() >> 4;
+        int maxZ = bound.getMaxZ() >> 4;
+        long[] chunks = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+        int i = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                chunks[i++] = BlockUtils.getChunkKey(x, z);
+            }
+        }
+        return forEachBatch(world, chunks, 0, consumer);
+    }
+
+    private static CompletableFuture<Void> forEachBatch(World world, long[] chunks, int start, Consumer<List<ChunkSnapshot>> consumer) {
+        if (start >= chunks.length) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.supplyAsync(() -> snapshotBatch(world, chunks, start), MAIN).thenCompose(futures -> CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApplyAsync(v -> {
+            List<ChunkSnapshot> snapshots = new ArrayList<>(futures.size());
+            for (CompletableFuture<ChunkSnapshot> future : futures) {
+                snapshots.add(future.join());
+            }
+            consumer.accept(snapshots);
+            return null;
+        }, ASYNC)).thenCompose(v -> forEachBatch(world, chunks, start + BATCH_SIZE, consumer));
+    }
+
+    private static List<CompletableFuture<ChunkSnapshot>> snapshotBatch(World world, long[] chunks, int start) {
+        long[] batch = Arrays.copyOfRange(chunks, start, Math.min(chunks.length, start + BATCH_SIZE));
+        List<CompletableFuture<ChunkSnapshot>> futures = new ArrayList<>(batch.length);
+        for (long key : batch) {
+            futures.add(PaperLib.getChunkAtAsync(world, (int) (key >> 32), (int) key)
+                    .thenApplyAsync(chunk -> chunk.getChunkSnapshot(false, false, false), MAIN));
+        }
+        return futures;
+    }
+
+}
@@ -0,0 +1,149 @@
+package tk.shanebee.hg.util;
+
+import java.util.UUID;
+
+/**
+ * Open addressing hash map from {@link UUID UUIDs} to non-negative primitive ints
+ * <p>Keys are stored as their two longs, so lookups neither box nor allocate.</p>
+ */
+public final class UUIDIntMap {
+
+    private static final int MISSING = -1;
+
+    private long[] most;
+    private long[] least;
+    // Stored as value + 1, so 0 marks an empty slot
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public UUIDIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected Expected number of entries
+     */
+    public UUIDIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        this.most = new long[capacity];
+        this.least = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Get the value mapped to a key
+     *
+     * @param uuid Key to get
+     * @return Value of this key, -1 if not mapped
+     */
+    public int get(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int slot = mix(msb, lsb) & mask;
+        int value;
+        while ((value = values[slot]) != 0) {
+            if (most[slot] == msb && least[slot] == lsb) return value - 1;
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Map a key to a value, replacing any existing value
+     *
+     * @param uuid  Key to map
+     * @param value Value to map (must not be negative)
+     * @return Previous value of this key, -1 if not mapped before
+     */
+    public int put(UUID uuid, int value) {
+        if (value < 0) throw new IllegalArgumentException("Value can not be negative");
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int slot = mix(msb, lsb) & mask;
+        int existing;
+        while ((existing = values[slot]) != 0) {
+            if (most[slot] == msb && least[slot] == lsb) {
+                values[slot] = value + 1;
+                return existing - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        most[slot] = msb;
+        least[slot] = lsb;
+        values[slot] = value + 1;
+        if (++size * 4 > values.length * 3) {
+            grow();
+        }
+        return MISSING;
+    }
+
+    /**
+     * Remove the mapping of a key
+     *
+     * @param uuid Key to remove
+     * @return Previous value of this key, -1 if not mapped
+     */
+    public int remove(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int slot = mix(msb, lsb) & mask;
+        int existing;
+        while ((existing = values[slot]) != 0) {
+            if (most[slot] == msb && least[slot] == lsb) break;
+            slot = (slot + 1) & mask;
+        }
+        if (existing == 0) return MISSING;
+        // Shift later keys of the run back into the gap, so lookups never stop early
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != 0) {
+            int home = mix(most[next], least[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                most[gap] = most[next];
+                least[gap] = least[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = 0;
+        size--;
+        return existing - 1;
+    }
+
+    /**
+     * @return Number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        int[] oldValues = values;
+        int capacity = oldValues.length << 1;
+        most = new long[capacity];
+        least = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == 0) continue;
+            int slot = mix(oldMost[i], oldLeast[i]) & mask;
+            while (values[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            most[slot] = oldMost[i];
+            least[slot] = oldLeast[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int mix(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -19,10 +19,10 @@ import org.bukkit.material.MaterialData;
 import org.jetbrains.annotations.NotNull;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Config;
+import tk.shanebee.hg.data.NameCache;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -233,14 +233,22 @@ public class Util {
 
     /**
      * Convert a list of UUIDs to a string of player names
+     * <p>Names come from the {@link NameCache}, players not cached yet fall back to their online name</p>
      *
      * @param uuid UUID list to convert
      * @return List<String></String> of player names
      */
     public static List<String> convertUUIDListToStringList(List<UUID> uuid) {
+        HG plugin = HG.getPlugin();
+        NameCache nameCache = plugin.getNameCache();
         List<String> winners = new ArrayList<>();
         for (UUID id : uuid) {
-            winners.add(Objects.requireNonNull(Bukkit.getPlayer(id)).getName());
+            String name = nameCache.getName(id);
+            if (name == null) {
+                Player player = Bukkit.getPlayer(id);
+                name = player != null ? player.getName() : plugin.getLang().lb_missing_player;
+            }
+            winners.add(name);
         }
         return winners;
     }